@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.benchmark;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Maven plugin logger that discards everything, so benchmarks do not measure console output.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public final class SilentLog implements Log {
+	
+	@Override
+	public boolean isDebugEnabled() {
+		return false;
+	}
+	
+	@Override
+	public void debug(CharSequence content) {
+	}
+	
+	@Override
+	public void debug(CharSequence content, Throwable error) {
+	}
+	
+	@Override
+	public void debug(Throwable error) {
+	}
+	
+	@Override
+	public boolean isInfoEnabled() {
+		return false;
+	}
+	
+	@Override
+	public void info(CharSequence content) {
+	}
+	
+	@Override
+	public void info(CharSequence content, Throwable error) {
+	}
+	
+	@Override
+	public void info(Throwable error) {
+	}
+	
+	@Override
+	public boolean isWarnEnabled() {
+		return false;
+	}
+	
+	@Override
+	public void warn(CharSequence content) {
+	}
+	
+	@Override
+	public void warn(CharSequence content, Throwable error) {
+	}
+	
+	@Override
+	public void warn(Throwable error) {
+	}
+	
+	@Override
+	public boolean isErrorEnabled() {
+		return false;
+	}
+	
+	@Override
+	public void error(CharSequence content) {
+	}
+	
+	@Override
+	public void error(CharSequence content, Throwable error) {
+	}
+	
+	@Override
+	public void error(Throwable error) {
+	}
+}
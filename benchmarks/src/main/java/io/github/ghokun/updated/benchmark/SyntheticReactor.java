@@ -0,0 +1,219 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.benchmark;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+/**
+ * Generates a git repository and a flat reactor of given size in a temporary directory. Objects are written straight
+ * to the object database, the working tree stays empty.
+ *
+ * <pre>
+ * root
+ * ├── pom.xml
+ * ├── m0
+ * │   ├── pom.xml
+ * │   └── src/main/java/...  (changed files of m0)
+ * ├── m1
+ * ...
+ * </pre>
+ *
+ * Changed files are spread over modules round robin and are added, deleted and modified in turn. Remote branch
+ * {@code origin/master} points to the base commit and local branch {@code master} to the changed commit.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public final class SyntheticReactor implements Closeable {
+	
+	private static final String GROUP_ID = "io.github.ghokun.synthetic";
+	private static final String VERSION = "1.0.0";
+	
+	private final Path basedir;
+	private final MavenProject root;
+	private final Set<MavenProject> projects = new LinkedHashSet<>();
+	private final List<String> changedPaths = new ArrayList<>();
+	
+	private SyntheticReactor(Path basedir, int modules) {
+		this.basedir = basedir;
+		this.root = project("root", basedir.toFile());
+		this.projects.add(this.root);
+		for (int i = 0; i < modules; i++) {
+			this.root.getModel().addModule("m" + i);
+			this.projects.add(project("m" + i, new File(basedir.toFile(), "m" + i)));
+		}
+	}
+	
+	/**
+	 * Generates reactor.
+	 *
+	 * @param modules Number of modules under root
+	 * @param changedFiles Number of changed files between remote and local branch
+	 * @return Generated reactor, delete with {@link #close()}
+	 * @throws IOException If repository could not be written
+	 */
+	public static SyntheticReactor create(int modules, int changedFiles) throws IOException {
+		final SyntheticReactor reactor = new SyntheticReactor(Files.createTempDirectory("updated-benchmark"), modules);
+		try (final Repository repository = FileRepositoryBuilder.create(reactor.basedir.resolve(".git").toFile())) {
+			repository.create();
+			try (final ObjectInserter inserter = repository.newObjectInserter()) {
+				final ObjectId pom = inserter.insert(Constants.OBJ_BLOB, "<project/>".getBytes(StandardCharsets.UTF_8));
+				final ObjectId oldContent = inserter.insert(Constants.OBJ_BLOB, "old".getBytes(StandardCharsets.UTF_8));
+				final ObjectId newContent = inserter.insert(Constants.OBJ_BLOB, "new".getBytes(StandardCharsets.UTF_8));
+				
+				final DirCache base = DirCache.newInCore();
+				final DirCache changed = DirCache.newInCore();
+				final DirCacheBuilder baseBuilder = base.builder();
+				final DirCacheBuilder changedBuilder = changed.builder();
+				add(baseBuilder, "pom.xml", pom);
+				add(changedBuilder, "pom.xml", pom);
+				for (int i = 0; i < modules; i++) {
+					add(baseBuilder, "m" + i + "/pom.xml", pom);
+					add(changedBuilder, "m" + i + "/pom.xml", pom);
+				}
+				for (int i = 0; i < changedFiles; i++) {
+					final String path = (modules > 0 ? "m" + i % modules + "/" : "") + "src/main/java/F" + i + ".java";
+					reactor.changedPaths.add(path);
+					switch (i % 3) {
+						case 0: // add
+							add(changedBuilder, path, newContent);
+							break;
+						case 1: // delete
+							add(baseBuilder, path, oldContent);
+							break;
+						default: // modify
+							add(baseBuilder, path, oldContent);
+							add(changedBuilder, path, newContent);
+							break;
+					}
+				}
+				baseBuilder.finish();
+				changedBuilder.finish();
+				
+				final ObjectId baseCommit = commit(inserter, base.writeTree(inserter), null);
+				final ObjectId changedCommit = commit(inserter, changed.writeTree(inserter), baseCommit);
+				inserter.flush();
+				
+				updateRef(repository, "refs/remotes/origin/master", baseCommit);
+				updateRef(repository, "refs/heads/master", changedCommit);
+				repository.updateRef("refs/remotes/origin/HEAD").link("refs/remotes/origin/master");
+				repository.updateRef(Constants.HEAD).link("refs/heads/master");
+			}
+		} catch (final IOException e) {
+			reactor.close();
+			throw e;
+		}
+		return reactor;
+	}
+	
+	public MavenProject getRoot() {
+		return this.root;
+	}
+	
+	public Set<MavenProject> getProjects() {
+		return Collections.unmodifiableSet(this.projects);
+	}
+	
+	public List<String> getChangedPaths() {
+		return Collections.unmodifiableList(this.changedPaths);
+	}
+	
+	public Path getBasedir() {
+		return this.basedir;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		try (final Stream<Path> pathStream = Files.walk(this.basedir)) {
+			pathStream.map(Path::toFile).sorted((o1, o2) -> o2.compareTo(o1)).forEach(File::delete);
+		}
+	}
+	
+	private static MavenProject project(String artifactId, File basedir) {
+		final Model model = new Model();
+		model.setGroupId(GROUP_ID);
+		model.setArtifactId(artifactId);
+		model.setVersion(VERSION);
+		final MavenProject project = new MavenProject(model);
+		project.setFile(new File(basedir, "pom.xml"));
+		return project;
+	}
+	
+	private static void add(DirCacheBuilder builder, String path, ObjectId blob) {
+		final DirCacheEntry entry = new DirCacheEntry(path);
+		entry.setFileMode(FileMode.REGULAR_FILE);
+		entry.setObjectId(blob);
+		builder.add(entry);
+	}
+	
+	private static ObjectId commit(ObjectInserter inserter, ObjectId tree, ObjectId parent) throws IOException {
+		final PersonIdent ident = new PersonIdent("benchmark", "benchmark@localhost");
+		final CommitBuilder commit = new CommitBuilder();
+		commit.setTreeId(tree);
+		if (parent != null) {
+			commit.setParentId(parent);
+		}
+		commit.setAuthor(ident);
+		commit.setCommitter(ident);
+		commit.setMessage(parent == null ? "base" : "changes");
+		return inserter.insert(commit);
+	}
+	
+	private static void updateRef(Repository repository, String name, ObjectId id) throws IOException {
+		final RefUpdate update = repository.updateRef(name);
+		update.setNewObjectId(id);
+		update.setForceUpdate(true);
+		final RefUpdate.Result result = update.update();
+		if (result != RefUpdate.Result.NEW && result != RefUpdate.Result.FORCED) {
+			throw new IOException("Could not update " + name + ": " + result);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.output;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.ghokun.updated.benchmark.SyntheticReactor;
+
+/**
+ * Compilation and row rendering of list goal default template.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ListTemplateBenchmark {
+	
+	private static final String TEMPLATE = "baseDir,groupId:artifactId,localVersion,remoteVersion,remoteRepositoryId,remoteRepositoryUrl";
+	
+	@Param({ "10", "1000", "10000" })
+	private int modules;
+	
+	private final List<ListRow> rows = new ArrayList<>();
+	private ListTemplate template;
+	
+	@Setup
+	public void setUp() throws IOException, InvalidVersionSpecificationException {
+		final Version version = new GenericVersionScheme().parseVersion("0.9.0");
+		final VersionRangeResult result = new VersionRangeResult(new VersionRangeRequest());
+		result.addVersion(version);
+		result
+			.setRepository(version,
+				new RemoteRepository.Builder("central", "default", "https://repo.maven.apache.org/maven2").build());
+		try (final SyntheticReactor reactor = SyntheticReactor.create(this.modules, 0)) {
+			for (final MavenProject project : reactor.getProjects()) {
+				this.rows.add(ListRow.of(project, result));
+			}
+		}
+		this.template = ListTemplate.compile(TEMPLATE);
+	}
+	
+	@Benchmark
+	public ListTemplate compile() {
+		return ListTemplate.compile(TEMPLATE);
+	}
+	
+	@Benchmark
+	public void renderRows(Blackhole blackhole) {
+		for (final ListRow row : this.rows) {
+			blackhole.consume(this.template.render(row));
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.scm;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.ghokun.updated.benchmark.SilentLog;
+import io.github.ghokun.updated.benchmark.SyntheticReactor;
+
+/**
+ * End to end change detection of {@link GitDetector}: tree walk and module attribution.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GitDetectorBenchmark {
+	
+	@Param({ "10", "1000", "10000" })
+	private int modules;
+	
+	@Param({ "1000", "100000" })
+	private int changedFiles;
+	
+	private SyntheticReactor reactor;
+	private final GitDetector detector = new GitDetector();
+	private final SilentLog log = new SilentLog();
+	
+	@Setup
+	public void setUp() throws IOException {
+		this.reactor = SyntheticReactor.create(this.modules, this.changedFiles);
+	}
+	
+	@TearDown
+	public void tearDown() throws IOException {
+		this.reactor.close();
+	}
+	
+	@Benchmark
+	public SourceCodeChanges detectChanges() throws MojoExecutionException {
+		return this.detector
+			.detectChanges(this.reactor.getRoot(), this.reactor.getProjects(), this.log, new ChangeDetectionRequest());
+	}
+	
+	@Benchmark
+	public SourceCodeChanges detectFirstChanges() throws MojoExecutionException {
+		return this.detector
+			.detectChanges(this.reactor.getRoot(),
+				this.reactor.getProjects(),
+				this.log,
+				new ChangeDetectionRequest().setFirstChangeOnly(true));
+	}
+}
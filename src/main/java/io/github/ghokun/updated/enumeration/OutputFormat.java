@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.enumeration;
+
+/**
+ * Output formats of list goal.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public enum OutputFormat {
+	
+	/**
+	 * One rendered template per line, optionally preceded by header.
+	 */
+	CSV("csv"),
+	
+	/**
+	 * One JSON object per line.
+	 */
+	NDJSON("ndjson"),
+	
+	/**
+	 * A single JSON array of objects.
+	 */
+	JSON("json");
+	
+	private final String extension;
+	
+	private OutputFormat(final String extension) {
+		this.extension = extension;
+	}
+	
+	/**
+	 * @return Extension appended to output file, without dot
+	 */
+	public String getExtension() {
+		return this.extension;
+	}
+}
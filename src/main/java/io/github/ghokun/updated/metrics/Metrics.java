@@ -0,0 +1,349 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.maven.plugin.logging.Log;
+import org.eclipse.aether.transfer.TransferListener;
+
+/**
+ * Phase timings, version lookup counters and per-repository transfer metrics of a goal execution. Thread-safe.
+ *
+ * <pre>
+ * final Metrics.Timer timer = metrics.start("scm.diff");
+ * try {
+ * 	// timed work
+ * } finally {
+ * 	timer.stop();
+ * }
+ * </pre>
+ *
+ * Phases that run on several threads at once, e.g. resolve, sum up the time of all threads.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class Metrics {
+	
+	private final Map<String, Phase> phases = new LinkedHashMap<>();
+	private final Map<String, RepositoryMetrics> repositories = new LinkedHashMap<>();
+	private final LongAdder versionLookups = new LongAdder();
+	private final LongAdder versionCacheHits = new LongAdder();
+	private final Map<String, LongAdder> counters = new LinkedHashMap<>();
+	
+	/**
+	 * Starts timing given phase. Timings of the same phase are summed up.
+	 * 
+	 * @param phase Phase name
+	 * @return Timer to stop when phase ends, usually in a finally block
+	 */
+	public Timer start(String phase) {
+		return new Timer(phase, System.nanoTime());
+	}
+	
+	/**
+	 * @param phase Phase name
+	 * @param nanos Elapsed time of one run of phase
+	 */
+	public synchronized void record(String phase, long nanos) {
+		this.phases.computeIfAbsent(phase, Phase::new).add(nanos);
+	}
+	
+	/**
+	 * Names a remote repository, so that its transfers are reported with its ID.
+	 * 
+	 * @param id Repository ID
+	 * @param url Repository URL
+	 */
+	public synchronized void registerRepository(String id, String url) {
+		this.repositories.computeIfAbsent(key(url), key -> new RepositoryMetrics(id, url));
+	}
+	
+	synchronized RepositoryMetrics repository(String url) {
+		return this.repositories.computeIfAbsent(key(url), key -> new RepositoryMetrics(url, url));
+	}
+	
+	/**
+	 * Transfer resources carry repository URLs with a trailing slash, repositories may not.
+	 */
+	private static String key(String url) {
+		return url.endsWith("/")
+				? url.substring(0, url.length() - 1)
+				: url;
+	}
+	
+	/**
+	 * @param cached True if lookup was answered from version cache
+	 */
+	public void versionLookup(boolean cached) {
+		this.versionLookups.increment();
+		if (cached) {
+			this.versionCacheHits.increment();
+		}
+	}
+	
+	/**
+	 * @param counter Counter name, e.g. hedged requests
+	 */
+	public void increment(String counter) {
+		this.add(counter, 1);
+	}
+	
+	/**
+	 * @param counter Counter name
+	 * @param amount Amount to add
+	 */
+	public void add(String counter, long amount) {
+		final LongAdder adder;
+		synchronized (this) {
+			adder = this.counters.computeIfAbsent(counter, key -> new LongAdder());
+		}
+		adder.add(amount);
+	}
+	
+	/**
+	 * @param counter Counter name
+	 * @return Current value of counter, 0 if never incremented
+	 */
+	public synchronized long counter(String counter) {
+		final LongAdder adder = this.counters.get(counter);
+		return adder != null
+				? adder.sum()
+				: 0;
+	}
+	
+	private synchronized Map<String, Long> counters() {
+		final Map<String, Long> result = new LinkedHashMap<>();
+		for (final Map.Entry<String, LongAdder> counter : this.counters.entrySet()) {
+			result.put(counter.getKey(), counter.getValue().sum());
+		}
+		return result;
+	}
+	
+	/**
+	 * @return Listener that records transfers of a repository system session
+	 */
+	public TransferListener transferListener() {
+		return new MetricsTransferListener(this);
+	}
+	
+	private synchronized List<Phase> phases() {
+		return new ArrayList<>(this.phases.values());
+	}
+	
+	private synchronized List<RepositoryMetrics> repositories() {
+		final List<RepositoryMetrics> result = new ArrayList<>();
+		for (final RepositoryMetrics repository : this.repositories.values()) {
+			if (repository.getRequests() > 0) {
+				result.add(repository);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Logs a summary of all metrics.
+	 * 
+	 * @param log Maven log
+	 */
+	public void log(Log log) {
+		log.info("Metrics:");
+		for (final Phase phase : this.phases()) {
+			log
+				.info(String
+					.format(Locale.ROOT,
+						"  %-16s : %10.1f ms (%d x, max %.1f ms)",
+						phase.name,
+						millis(phase.total),
+						phase.count,
+						millis(phase.max)));
+		}
+		log
+			.info(String
+				.format(Locale.ROOT,
+					"  %-16s : %d (%d from cache)",
+					"version lookups",
+					this.versionLookups.sum(),
+					this.versionCacheHits.sum()));
+		for (final Map.Entry<String, Long> counter : this.counters().entrySet()) {
+			log.info(String.format(Locale.ROOT, "  %-16s : %d", counter.getKey(), counter.getValue()));
+		}
+		for (final RepositoryMetrics repository : this.repositories()) {
+			log
+				.info(String
+					.format(Locale.ROOT,
+						"  %-16s : %d requests, %d succeeded, %d failed, %d bytes, p50 <= %d ms, p95 <= %d ms, max %d ms",
+						repository.getId(),
+						repository.getRequests(),
+						repository.getSucceeded(),
+						repository.getFailed(),
+						repository.getBytes(),
+						repository.getLatencyPercentile(50),
+						repository.getLatencyPercentile(95),
+						repository.getLatencyMax()));
+		}
+	}
+	
+	/**
+	 * Writes all metrics to given file as a JSON object.
+	 * 
+	 * @param file Target file, parent directories are created
+	 * @throws IOException If file cannot be written
+	 */
+	public void write(Path file) throws IOException {
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		try (final Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write("{\"phases\":{");
+			String separator = "";
+			for (final Phase phase : this.phases()) {
+				writer.write(separator);
+				writeString(writer, phase.name);
+				writer
+					.write(String
+						.format(Locale.ROOT,
+							":{\"count\":%d,\"totalMillis\":%.3f,\"maxMillis\":%.3f}",
+							phase.count,
+							millis(phase.total),
+							millis(phase.max)));
+				separator = ",";
+			}
+			writer
+				.write(String
+					.format(Locale.ROOT,
+						"},\"versionLookups\":{\"count\":%d,\"cacheHits\":%d},\"counters\":{",
+						this.versionLookups.sum(),
+						this.versionCacheHits.sum()));
+			separator = "";
+			for (final Map.Entry<String, Long> counter : this.counters().entrySet()) {
+				writer.write(separator);
+				writeString(writer, counter.getKey());
+				writer.write(":" + counter.getValue());
+				separator = ",";
+			}
+			writer.write("},\"repositories\":[");
+			separator = "";
+			for (final RepositoryMetrics repository : this.repositories()) {
+				writer.write(separator);
+				writer.write("{\"id\":");
+				writeString(writer, repository.getId());
+				writer.write(",\"url\":");
+				writeString(writer, repository.getUrl());
+				writer
+					.write(String
+						.format(Locale.ROOT,
+							",\"requests\":%d,\"succeeded\":%d,\"failed\":%d,\"bytes\":%d"
+									+ ",\"latency\":{\"totalMillis\":%d,\"maxMillis\":%d,\"buckets\":{",
+							repository.getRequests(),
+							repository.getSucceeded(),
+							repository.getFailed(),
+							repository.getBytes(),
+							repository.getLatencyTotal(),
+							repository.getLatencyMax()));
+				for (int i = 0; i <= RepositoryMetrics.LATENCY_BOUNDS.length; i++) {
+					final String bound = i < RepositoryMetrics.LATENCY_BOUNDS.length
+							? String.valueOf(RepositoryMetrics.LATENCY_BOUNDS[i])
+							: "+Inf";
+					writer.write((i > 0 ? ",\"" : "\"") + bound + "\":" + repository.getLatencyCount(i));
+				}
+				writer.write("}}}");
+				separator = ",";
+			}
+			writer.write("]}");
+			writer.write(System.lineSeparator());
+		}
+	}
+	
+	private static double millis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+	
+	private static void writeString(Writer writer, String value) throws IOException {
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				writer.write('\\');
+				writer.write(c);
+			} else if (c < 0x20) {
+				writer.write(String.format("\\u%04x", (int) c));
+			} else {
+				writer.write(c);
+			}
+		}
+		writer.write('"');
+	}
+	
+	/**
+	 * Running time of a phase, recorded when stopped.
+	 */
+	public final class Timer {
+		
+		private final String phase;
+		private final long start;
+		
+		private Timer(String phase, long start) {
+			this.phase = phase;
+			this.start = start;
+		}
+		
+		/**
+		 * Records elapsed time since start.
+		 */
+		public void stop() {
+			Metrics.this.record(this.phase, System.nanoTime() - this.start);
+		}
+	}
+	
+	private static final class Phase {
+		
+		private final String name;
+		private long count;
+		private long total;
+		private long max;
+		
+		private Phase(String name) {
+			this.name = name;
+		}
+		
+		private void add(long nanos) {
+			this.count++;
+			this.total += nanos;
+			this.max = Math.max(this.max, nanos);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.metrics;
+
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.TransferEvent;
+
+/**
+ * Records transfers of a repository system session into {@link Metrics}.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+class MetricsTransferListener extends AbstractTransferListener {
+	
+	private final Metrics metrics;
+	
+	MetricsTransferListener(Metrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	@Override
+	public void transferInitiated(TransferEvent event) {
+		this.repository(event).requested();
+	}
+	
+	@Override
+	public void transferSucceeded(TransferEvent event) {
+		this.repository(event).succeeded(event.getTransferredBytes(), this.latency(event));
+	}
+	
+	@Override
+	public void transferFailed(TransferEvent event) {
+		this.repository(event).failed(event.getTransferredBytes(), this.latency(event));
+	}
+	
+	private RepositoryMetrics repository(TransferEvent event) {
+		return this.metrics.repository(event.getResource().getRepositoryUrl());
+	}
+	
+	private long latency(TransferEvent event) {
+		return Math.max(0, System.currentTimeMillis() - event.getResource().getTransferStartTime());
+	}
+}
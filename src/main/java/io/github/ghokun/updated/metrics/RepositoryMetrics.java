@@ -0,0 +1,172 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transfer counters and latency histogram of a remote repository. Thread-safe.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class RepositoryMetrics {
+	
+	/**
+	 * Inclusive upper bounds of latency buckets in milliseconds. Last bucket is unbounded.
+	 */
+	static final long[] LATENCY_BOUNDS = { 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000 };
+	
+	private final String id;
+	private final String url;
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder succeeded = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder bytes = new LongAdder();
+	private final LongAdder latencyTotal = new LongAdder();
+	private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BOUNDS.length + 1);
+	private volatile long latencyMax;
+	
+	RepositoryMetrics(String id, String url) {
+		this.id = id;
+		this.url = url;
+	}
+	
+	void requested() {
+		this.requests.increment();
+	}
+	
+	void succeeded(long transferredBytes, long latencyMillis) {
+		this.succeeded.increment();
+		this.bytes.add(transferredBytes);
+		this.latency(latencyMillis);
+	}
+	
+	void failed(long transferredBytes, long latencyMillis) {
+		this.failed.increment();
+		this.bytes.add(transferredBytes);
+		this.latency(latencyMillis);
+	}
+	
+	private void latency(long millis) {
+		int bucket = 0;
+		while (bucket < LATENCY_BOUNDS.length && millis > LATENCY_BOUNDS[bucket]) {
+			bucket++;
+		}
+		this.latencyBuckets.incrementAndGet(bucket);
+		this.latencyTotal.add(millis);
+		synchronized (this) {
+			if (millis > this.latencyMax) {
+				this.latencyMax = millis;
+			}
+		}
+	}
+	
+	/**
+	 * @return Repository ID, or URL if repository was not registered
+	 */
+	public String getId() {
+		return this.id;
+	}
+	
+	/**
+	 * @return Repository URL
+	 */
+	public String getUrl() {
+		return this.url;
+	}
+	
+	/**
+	 * @return Started transfers
+	 */
+	public long getRequests() {
+		return this.requests.sum();
+	}
+	
+	/**
+	 * @return Succeeded transfers
+	 */
+	public long getSucceeded() {
+		return this.succeeded.sum();
+	}
+	
+	/**
+	 * @return Failed transfers, including metadata missing in repository
+	 */
+	public long getFailed() {
+		return this.failed.sum();
+	}
+	
+	/**
+	 * @return Transferred bytes of succeeded and failed transfers
+	 */
+	public long getBytes() {
+		return this.bytes.sum();
+	}
+	
+	/**
+	 * @return Sum of latencies of succeeded and failed transfers in milliseconds
+	 */
+	public long getLatencyTotal() {
+		return this.latencyTotal.sum();
+	}
+	
+	/**
+	 * @return Highest latency of a succeeded or failed transfer in milliseconds
+	 */
+	public long getLatencyMax() {
+		return this.latencyMax;
+	}
+	
+	/**
+	 * @param bucket Index of bucket, {@link #LATENCY_BOUNDS} length for the unbounded one
+	 * @return Number of completed transfers in bucket
+	 */
+	long getLatencyCount(int bucket) {
+		return this.latencyBuckets.get(bucket);
+	}
+	
+	/**
+	 * Upper bound of given percentile, as precise as latency buckets.
+	 * 
+	 * @param percentile Between 0 and 100
+	 * @return Upper bound in milliseconds, max latency for the unbounded bucket and 0 if there are no transfers
+	 */
+	public long getLatencyPercentile(double percentile) {
+		long total = 0;
+		for (int i = 0; i < this.latencyBuckets.length(); i++) {
+			total += this.latencyBuckets.get(i);
+		}
+		final long rank = (long) Math.ceil(total * percentile / 100);
+		long count = 0;
+		for (int i = 0; i < LATENCY_BOUNDS.length; i++) {
+			count += this.latencyBuckets.get(i);
+			if (count >= rank && count > 0) {
+				return Math.min(LATENCY_BOUNDS[i], this.latencyMax);
+			}
+		}
+		return this.latencyMax;
+	}
+}
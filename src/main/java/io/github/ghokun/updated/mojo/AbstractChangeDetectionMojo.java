@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.mojo;
+
+import java.nio.file.Paths;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import io.github.ghokun.updated.enumeration.ChangeScope;
+import io.github.ghokun.updated.enumeration.ComparisonBase;
+import io.github.ghokun.updated.metrics.Metrics;
+import io.github.ghokun.updated.scm.ChangeDetectionRequest;
+import io.github.ghokun.updated.scm.SourceCodeChangeDetectorFactory;
+import io.github.ghokun.updated.scm.SourceCodeChanges;
+import io.github.ghokun.updated.scm.SourceCodeManagement;
+
+/**
+ * Abstract class for mojos that detect source code changes of modules.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public abstract class AbstractChangeDetectionMojo extends AbstractUpdatedMojo {
+	
+	/**
+	 * Source code management type. Defaults to GIT which uses Eclipse JGit. GIT_CLI runs the git executable instead,
+	 * which is faster on very large repositories. FILESYSTEM needs no version control and compares files to a snapshot
+	 * recorded by an earlier execution, see {@link #updateSnapshot}.
+	 */
+	@Parameter(defaultValue = "GIT", property = "scm", required = false)
+	protected SourceCodeManagement scm;
+	
+	/**
+	 * Remote branch name to validate against.
+	 */
+	@Parameter(defaultValue = "HEAD", property = "remote", required = false)
+	protected String remoteBranch;
+	
+	/**
+	 * Directory of change detection cache. Detected changes are stored per local tree, remote tree and reactor layout,
+	 * and later executions on the same trees reuse them. Can be shared between checkouts. Disabled when empty.
+	 */
+	@Parameter(defaultValue = "${project.build.directory}/updated", property = "changeCacheDir", required = false)
+	protected String changeCacheDir;
+	
+	/**
+	 * Local changes to validate.
+	 *
+	 * <pre>
+	 * COMMITTED    : Commits of local branch.
+	 * INDEX        : Commits and staged changes.
+	 * WORKING_TREE : Commits, staged and unstaged changes, including untracked files that are not ignored.
+	 * </pre>
+	 */
+	@Parameter(defaultValue = "COMMITTED", property = "changeScope", required = false)
+	protected ChangeScope changeScope;
+	
+	/**
+	 * Remote commit that local changes are compared to.
+	 *
+	 * <pre>
+	 * TIP        : Latest commit of remote branch.
+	 * MERGE_BASE : Last commit shared by local and remote branches. Changes made on remote after branching are ignored.
+	 * </pre>
+	 */
+	@Parameter(defaultValue = "TIP", property = "comparisonBase", required = false)
+	protected ComparisonBase comparisonBase;
+	
+	/**
+	 * If true, remote branch is fetched from origin before changes are detected. Only that branch is fetched, without
+	 * tags. Changes are detected against the last fetched state if fetch fails.
+	 */
+	@Parameter(defaultValue = "true", property = "fetch", required = false)
+	protected boolean fetch;
+	
+	/**
+	 * Seconds after a fetch of remote branch during which it is not fetched again. Always fetches when 0.
+	 */
+	@Parameter(defaultValue = "0", property = "fetchInterval", required = false)
+	protected long fetchInterval;
+	
+	/**
+	 * Maximum number of changed files listed per module, 0 for no limit. Further changes are only counted, and
+	 * summarized as "and N more". Keeps memory bounded on commits that touch a huge number of files.
+	 */
+	@Parameter(defaultValue = "0", property = "maxChangeDetails", required = false)
+	protected int maxChangeDetails;
+	
+	/**
+	 * Number of threads that diff committed changes, each taking a module directory at a time. Diff is sequential
+	 * when 1 and uses all processors when 0. Index and working tree scopes are always diffed sequentially.
+	 */
+	@Parameter(defaultValue = "1", property = "diffThreads", required = false)
+	protected int diffThreads;
+	
+	/**
+	 * File snapshot that FILESYSTEM scm compares files to. Should be outside of build directory to survive clean
+	 * builds.
+	 */
+	@Parameter(	defaultValue = "${project.build.directory}/updated/snapshot.bin", property = "snapshotFile",
+				required = false)
+	protected String snapshotFile;
+	
+	/**
+	 * If true, FILESYSTEM scm records current files as its snapshot, so that later executions report changes made
+	 * after this one. Set it once changes are released, e.g. with a successful deploy, so that a failed build does not
+	 * move the baseline. If false, changes are reported against the same snapshot until it is updated.
+	 */
+	@Parameter(defaultValue = "false", property = "updateSnapshot", required = false)
+	protected boolean updateSnapshot;
+	
+	/**
+	 * Creates a change detection request from parameters of this mojo.
+	 * 
+	 * @return New request
+	 */
+	protected ChangeDetectionRequest newChangeDetectionRequest() {
+		return new ChangeDetectionRequest()
+			.setRemoteBranch(this.remoteBranch)
+			.setCacheDirectory(this.changeCacheDir != null && this.changeCacheDir.length() > 0
+					? Paths.get(this.changeCacheDir)
+					: null)
+			.setMetrics(this.metrics)
+			.setFetch(this.fetch)
+			.setFetchInterval(this.fetchInterval)
+			.setComparisonBase(this.comparisonBase)
+			.setChangeScope(this.changeScope)
+			.setMaxChangeDetails(this.maxChangeDetails > 0
+					? this.maxChangeDetails
+					: Integer.MAX_VALUE)
+			.setDiffThreads(this.diffThreads)
+			.setSnapshotFile(this.snapshotFile != null && this.snapshotFile.length() > 0
+					? Paths.get(this.snapshotFile)
+					: null)
+			.setUpdateSnapshot(this.updateSnapshot);
+	}
+	
+	/**
+	 * Detects source code changes of all modules.
+	 * 
+	 * @param request Change detection request, see {@link #newChangeDetectionRequest()}
+	 * @return Changes as module tree
+	 * @throws MojoExecutionException If changes could not be detected
+	 */
+	protected SourceCodeChanges detectChanges(ChangeDetectionRequest request) throws MojoExecutionException {
+		final Metrics.Timer detectTimer = this.metrics.start("detect");
+		try {
+			return SourceCodeChangeDetectorFactory
+				.getDetector(this.scm)
+				.detectChanges(this.project, this.getProjects(), this.getLog(), request);
+		} finally {
+			detectTimer.stop();
+		}
+	}
+}
@@ -28,9 +28,17 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import org.apache.maven.execution.MavenSession;
@@ -38,22 +46,24 @@ import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
-import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
 import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.DefaultArtifact;
-import org.eclipse.aether.connector.basic.BasicRepositoryConnectorFactory;
-import org.eclipse.aether.impl.DefaultServiceLocator;
-import org.eclipse.aether.repository.LocalRepository;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.resolution.VersionRangeRequest;
 import org.eclipse.aether.resolution.VersionRangeResolutionException;
 import org.eclipse.aether.resolution.VersionRangeResult;
-import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
-import org.eclipse.aether.spi.connector.transport.TransporterFactory;
-import org.eclipse.aether.transport.file.FileTransporterFactory;
-import org.eclipse.aether.transport.http.HttpTransporterFactory;
+
+import io.github.ghokun.updated.enumeration.VersionLookup;
+import io.github.ghokun.updated.metrics.Metrics;
+import io.github.ghokun.updated.repository.AdaptiveResolver;
+import io.github.ghokun.updated.repository.InMemoryVersionResolver;
+import io.github.ghokun.updated.repository.MetadataVersionResolver;
+import io.github.ghokun.updated.repository.RepositoryHealth;
+import io.github.ghokun.updated.repository.ResolverSupport;
+import io.github.ghokun.updated.repository.VersionCache;
+import io.github.ghokun.updated.repository.VersionResolver;
 
 /**
  * Abstract class for common parts in mojos.
@@ -78,44 +88,248 @@ public abstract class AbstractUpdatedMojo extends AbstractMojo {
 	@Parameter(defaultValue = "${project.basedir}/.m2", property = "tempLocalRepo", required = false)
 	protected String tempLocalRepo;
 	
-	private static RepositorySystem repositorySystemSingleton;
+	/**
+	 * Number of threads used for resolving versions from remote repositories. Lookups are made one after another when
+	 * set to 1.
+	 */
+	@Parameter(defaultValue = "1", property = "resolverThreads", required = false)
+	protected int resolverThreads;
+	
+	/**
+	 * Directory of persistent version cache. Unlike {@link #tempLocalRepo}, it is not deleted after execution and can
+	 * be shared by all projects of the user.
+	 */
+	@Parameter(	defaultValue = "${user.home}/.m2/updated-maven-plugin/versions", property = "versionCacheDir",
+				required = false)
+	protected String versionCacheDir;
+	
+	/**
+	 * Time to live of version cache entries in seconds. Remote repositories are not queried for an artifact while its
+	 * entry is fresh. On a miss, each repository is queried on its own so that entries are exact per repository.
+	 * Cache is disabled when 0.
+	 */
+	@Parameter(defaultValue = "0", property = "versionCacheTtl", required = false)
+	protected long versionCacheTtl;
+	
+	/**
+	 * How latest versions are looked up.
+	 *
+	 * <pre>
+	 * RANGE    : All published versions are resolved and the highest one is used.
+	 * METADATA : Latest and release markers of repository metadata are used, without reading all versions. Falls back
+	 *            to RANGE for repositories that do not have markers.
+	 * </pre>
+	 */
+	@Parameter(defaultValue = "RANGE", property = "versionLookup", required = false)
+	protected VersionLookup versionLookup;
+	
+	/**
+	 * If true, repository metadata is downloaded into memory instead of {@link #tempLocalRepo}, so nothing is written
+	 * to or deleted from project directory. Checksums of metadata are not validated in this mode.
+	 */
+	@Parameter(defaultValue = "false", property = "inMemoryMetadata", required = false)
+	protected boolean inMemoryMetadata;
+	
+	/**
+	 * If true, each remote repository is queried on its own, fastest first. Slow requests are duplicated and
+	 * repositories that fail repeatedly are skipped for the rest of the build. Otherwise all repositories are queried
+	 * in one request, which takes as long as the slowest repository.
+	 */
+	@Parameter(defaultValue = "false", property = "adaptiveResolution", required = false)
+	protected boolean adaptiveResolution;
+	
+	/**
+	 * Latency percentile of a repository after which a duplicate request is sent, when {@link #adaptiveResolution} is
+	 * enabled.
+	 */
+	@Parameter(defaultValue = "95", property = "hedgePercentile", required = false)
+	protected double hedgePercentile;
+	
+	/**
+	 * Milliseconds after which a duplicate request is sent to a repository that has too few requests to compute
+	 * {@link #hedgePercentile}.
+	 */
+	@Parameter(defaultValue = "1000", property = "hedgeDelay", required = false)
+	protected long hedgeDelay;
+	
+	/**
+	 * Consecutive failures after which a repository is skipped, when {@link #adaptiveResolution} is enabled. Never
+	 * skipped when 0.
+	 */
+	@Parameter(defaultValue = "3", property = "circuitBreakerThreshold", required = false)
+	protected int circuitBreakerThreshold;
+	
+	/**
+	 * If true, a summary of phase timings and remote repository transfers is logged at the end of the goal.
+	 */
+	@Parameter(defaultValue = "true", property = "showMetrics", required = false)
+	protected boolean showMetrics;
+	
+	/**
+	 * If true, metrics are written to {@link #metricsFile} as JSON at the end of the goal.
+	 */
+	@Parameter(defaultValue = "false", property = "writeMetrics", required = false)
+	protected boolean writeMetrics;
+	
+	/**
+	 * JSON file that metrics are written to when {@link #writeMetrics} is enabled.
+	 */
+	@Parameter(defaultValue = "${project.build.directory}/updated-metrics.json", property = "metricsFile",
+				required = false)
+	protected String metricsFile;
+	
+	/**
+	 * Metrics of this execution, reported by {@link #reportMetrics()}.
+	 */
+	protected final Metrics metrics = new Metrics();
+	
+	private VersionCache versionCache;
+	
+	private synchronized VersionCache versionCache() {
+		if (this.versionCache == null && this.versionCacheTtl > 0) {
+			this.versionCache = new VersionCache(Paths.get(this.versionCacheDir),
+				TimeUnit.SECONDS.toMillis(this.versionCacheTtl));
+		}
+		return this.versionCache;
+	}
+	
+	private RepositorySystemSession session;
 	
-	protected static RepositorySystem repositorySystem() {
-		if (repositorySystemSingleton == null) {
-			final DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
-			locator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
-			locator.addService(TransporterFactory.class, FileTransporterFactory.class);
-			locator.addService(TransporterFactory.class, HttpTransporterFactory.class);
-			repositorySystemSingleton = locator.getService(RepositorySystem.class);
+	/**
+	 * Session of this execution. Shares local repository, caches and connection pools with other executions of the
+	 * build, see {@link ResolverSupport#session}, but records transfers to {@link #metrics}.
+	 */
+	private synchronized RepositorySystemSession session() {
+		if (this.session == null) {
+			for (final RemoteRepository repository : this.repositories) {
+				this.metrics.registerRepository(repository.getId(), repository.getUrl());
+			}
+			ResolverSupport.retain(this.mavenSession.getRepositorySession(), this.tempLocalRepo);
+			this.session = new DefaultRepositorySystemSession(
+				ResolverSupport.session(this.mavenSession.getRepositorySession(), this.tempLocalRepo))
+				.setTransferListener(this.metrics.transferListener());
 		}
-		return repositorySystemSingleton;
+		return this.session;
 	}
 	
-	private static RepositorySystemSession repositorySystemSessionSingleton;
+	private AdaptiveResolver adaptiveResolver;
+	
+	private synchronized AdaptiveResolver adaptiveResolver() {
+		if (this.adaptiveResolver == null) {
+			this.adaptiveResolver = new AdaptiveResolver(this.versionResolver(), this.session(), this.repositoryHealth(),
+				this.hedgePercentile, this.hedgeDelay, this.metrics, this.getLog());
+		}
+		return this.adaptiveResolver;
+	}
 	
-	protected static RepositorySystemSession repositorySystemSession(String tempLocalRepo) {
-		if (repositorySystemSessionSingleton == null) {
-			final DefaultRepositorySystemSession session = MavenRepositorySystemUtils.newSession();
-			final LocalRepository localRepo = new LocalRepository(tempLocalRepo);
-			session.setLocalRepositoryManager(repositorySystem().newLocalRepositoryManager(session, localRepo));
-			repositorySystemSessionSingleton = session;
+	private VersionResolver versionResolver() {
+		if (this.inMemoryMetadata) {
+			return new InMemoryVersionResolver(ResolverSupport.transporterProvider(), this.versionLookup);
 		}
-		return repositorySystemSessionSingleton;
+		final RepositorySystem system = ResolverSupport.repositorySystem();
+		return this.versionLookup == VersionLookup.METADATA
+				? new MetadataVersionResolver(system, this.metrics)
+				: system::resolveVersionRange;
 	}
 	
 	/**
-	 * Get all maven projects
+	 * Repository statistics live as long as the build, so that a failing repository is skipped by all modules.
+	 */
+	private RepositoryHealth repositoryHealth() {
+		return ResolverSupport
+			.buildScoped(this.mavenSession.getRepositorySession(),
+				RepositoryHealth.class,
+				() -> new RepositoryHealth(this.circuitBreakerThreshold));
+	}
+	
+	/**
+	 * Get all maven projects in reactor order.
 	 * 
-	 * @return {@link HashSet} of MavenProjects
+	 * @return {@link LinkedHashSet} of MavenProjects
 	 */
 	protected Set<MavenProject> getProjects() {
-		final Set<MavenProject> projects = new HashSet<>();
+		final Set<MavenProject> projects = new LinkedHashSet<>();
 		projects.addAll(this.mavenSession.getProjects());
 		return projects;
 	}
 	
 	/**
-	 * Finds latest version of artifact from remote repositories.
+	 * Creates executor for version lookups with {@link #resolverThreads} threads. Callers are responsible for shutting
+	 * it down.
+	 * 
+	 * @return Fixed size executor service
+	 */
+	protected ExecutorService newResolverExecutor() {
+		final AtomicInteger threadCount = new AtomicInteger();
+		return Executors.newFixedThreadPool(Math.max(1, this.resolverThreads), runnable -> {
+			final Thread thread = new Thread(runnable, "updated-resolver-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * Shuts down an executor created by {@link #newResolverExecutor()} and waits for running lookups. Running lookups
+	 * are not interrupted, aether does not expect interrupts while it writes local repository.
+	 * 
+	 * @param executor Executor created by {@link #newResolverExecutor()}
+	 * @param unneeded Lookups whose results are not needed anymore, cancelled if they have not started yet
+	 */
+	protected void shutdownResolverExecutor(ExecutorService executor, Collection<? extends Future<?>> unneeded) {
+		for (final Future<?> lookup : unneeded) {
+			lookup.cancel(false);
+		}
+		executor.shutdown();
+		try {
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Submits {@link #findLatestVersionOfArtifact(String, String, String)} to given executor.
+	 * 
+	 * @param executor Executor created by {@link #newResolverExecutor()}
+	 * @param groupId Group ID
+	 * @param artifactId Artifact ID
+	 * @param version Version
+	 * @return Pending lookup, see {@link #awaitLatestVersionOfArtifact(Future, String)}
+	 */
+	protected Future<VersionRangeResult> submitLatestVersionOfArtifact(
+			ExecutorService executor,
+			String groupId,
+			String artifactId,
+			String version) {
+		return executor.submit(() -> this.findLatestVersionOfArtifact(groupId, artifactId, version));
+	}
+	
+	/**
+	 * Waits for a lookup submitted by {@link #submitLatestVersionOfArtifact(ExecutorService, String, String, String)}.
+	 * 
+	 * @param lookup Pending lookup
+	 * @param coords Coordinates of module, used in error messages
+	 * @return Latest version of artifact
+	 * @throws MojoExecutionException If lookup failed or thread is interrupted
+	 */
+	protected VersionRangeResult awaitLatestVersionOfArtifact(Future<VersionRangeResult> lookup, String coords)
+			throws MojoExecutionException {
+		try {
+			return lookup.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MojoExecutionException("Interrupted while resolving versions of " + coords, e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof MojoExecutionException) {
+				throw (MojoExecutionException) e.getCause();
+			}
+			throw new MojoExecutionException("An error occurred while resolving versions of " + coords, e.getCause());
+		}
+	}
+	
+	/**
+	 * Finds latest version of artifact from remote repositories. Answers from version cache when it is enabled and has
+	 * fresh entries.
 	 * 
 	 * @param groupId Group ID
 	 * @param artifactId Artifact ID
@@ -131,14 +345,109 @@ public abstract class AbstractUpdatedMojo extends AbstractMojo {
 			new DefaultArtifact(groupId + ":" + artifactId + ":" + version),
 			this.repositories,
 			null);
+		final VersionCache cache = this.versionCache();
+		if (cache != null) {
+			try {
+				final VersionRangeResult cached = cache.get(request);
+				if (cached != null) {
+					this.metrics.versionLookup(true);
+					return cached;
+				}
+			} catch (final IOException e) {
+				this.getLog().warn("Could not read version cache of " + groupId + ":" + artifactId, e);
+			}
+		}
+		this.metrics.versionLookup(false);
+		final VersionRangeResult result;
+		final Metrics.Timer resolveTimer = this.metrics.start("resolve");
 		try {
-			return repositorySystem().resolveVersionRange(repositorySystemSession(this.tempLocalRepo), request);
+			if (cache != null) {
+				final List<VersionRangeResult> results = this.resolvePerRepository(request);
+				result = AdaptiveResolver.merge(request, results);
+				try {
+					cache.put(results);
+				} catch (final IOException e) {
+					this.getLog().warn("Could not write version cache of " + groupId + ":" + artifactId, e);
+				}
+			} else {
+				result = this.adaptiveResolution
+						? this.adaptiveResolver().resolveVersionRange(request)
+						: this.versionResolver().resolveVersionRange(this.session(), request);
+			}
 		} catch (final VersionRangeResolutionException e) {
-			throw new MojoExecutionException("An error occurred while resolving versions from remote repository.", e);
+			throw new MojoExecutionException("An error occurred while resolving versions of " + groupId + ":"
+					+ artifactId + " from remote repository.", e);
+		} finally {
+			resolveTimer.stop();
+		}
+		return result;
+	}
+	
+	/**
+	 * Resolves each repository on its own, so that version cache learns every repository that has a version. A single
+	 * request would attribute a version to the first repository only.
+	 */
+	private List<VersionRangeResult> resolvePerRepository(VersionRangeRequest request)
+			throws VersionRangeResolutionException {
+		if (this.adaptiveResolution) {
+			return this.adaptiveResolver().resolvePerRepository(request);
+		}
+		final VersionResolver resolver = this.versionResolver();
+		final List<VersionRangeResult> results = new ArrayList<>();
+		for (final RemoteRepository repository : request.getRepositories()) {
+			results
+				.add(resolver.resolveVersionRange(this.session(), AdaptiveResolver.single(request, repository)));
+		}
+		return results;
+	}
+	
+	/**
+	 * Logs and writes {@link #metrics} as configured. Called at the end of goals.
+	 */
+	protected void reportMetrics() {
+		if (this.showMetrics) {
+			this.getLog().info("");
+			this.metrics.log(this.getLog());
+		}
+		if (this.writeMetrics) {
+			try {
+				this.metrics.write(Paths.get(this.metricsFile));
+				this.getLog().info("Metrics written to " + this.metricsFile);
+			} catch (final IOException e) {
+				this.getLog().warn("Could not write metrics to " + this.metricsFile, e);
+			}
 		}
 	}
 	
+	/**
+	 * Releases resolver session of this execution and deletes {@link #tempLocalRepo} when no other execution uses it.
+	 * Goals call it in a finally block, otherwise a failed module would keep the repository in use for the rest of
+	 * the build.
+	 */
 	protected void cleanUp() {
+		final Metrics.Timer cleanUpTimer = this.metrics.start("cleanUp");
+		try {
+			final boolean lastUser;
+			synchronized (this) {
+				if (this.adaptiveResolver != null) {
+					this.adaptiveResolver.close();
+					this.adaptiveResolver = null;
+				}
+				// Other executions of a parallel build may still resolve into the same local repository
+				lastUser = this.session != null
+						? ResolverSupport.release(this.mavenSession.getRepositorySession(), this.tempLocalRepo)
+						: !ResolverSupport.inUse(this.mavenSession.getRepositorySession(), this.tempLocalRepo);
+				this.session = null;
+			}
+			if (lastUser) {
+				this.deleteTempLocalRepo();
+			}
+		} finally {
+			cleanUpTimer.stop();
+		}
+	}
+	
+	private void deleteTempLocalRepo() {
 		// Delete local repo
 		if (Files.exists(Paths.get(this.tempLocalRepo))) {
 			try (final Stream<Path> pathStream = Files.walk(Paths.get(this.tempLocalRepo))) {
@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.mojo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import io.github.ghokun.updated.metrics.Metrics;
+import io.github.ghokun.updated.reactor.ReactorGraph;
+import io.github.ghokun.updated.scm.SourceCodeChanges;
+
+/**
+ * Updated Maven Plugin Affected Mojo. This mojo lists modules that have source code changes and all modules that
+ * depend on them, as a project list for incremental builds.
+ *
+ * <pre>
+ * // Default
+ * mvn io.github.ghokun:updated-maven-plugin:affected
+ *
+ * // Builds affected modules only
+ * mvn io.github.ghokun:updated-maven-plugin:affected -DaffectedFile=target/affected.txt
+ * mvn install -pl $(cat target/affected.txt)
+ *
+ * // Lists changed modules without their dependents
+ * mvn io.github.ghokun:updated-maven-plugin:affected -DincludeDownstream=false
+ * </pre>
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+@Mojo(name = "affected", inheritByDefault = false, aggregator = true, threadSafe = true)
+public class AffectedMojo extends AbstractChangeDetectionMojo {
+	
+	/**
+	 * If true, includes modules that depend on changed modules, directly or transitively.
+	 */
+	@Parameter(defaultValue = "true", property = "includeDownstream", required = false)
+	private boolean includeDownstream;
+	
+	/**
+	 * File to write project list to, in -pl format. Does not produce output if left blank.
+	 */
+	@Parameter(property = "affectedFile", required = false)
+	private String affectedFile;
+	
+	/**
+	 * Separator of modules in project list.
+	 */
+	@Parameter(defaultValue = ",", property = "affectedSeparator", required = false)
+	private String affectedSeparator;
+	
+	@Override
+	public void execute() throws MojoExecutionException {
+		final SourceCodeChanges sourceCodeChanges = this
+			.detectChanges(this.newChangeDetectionRequest().setFirstChangeOnly(true));
+		
+		final ReactorGraph graph;
+		final BitSet affected;
+		final Metrics.Timer graphTimer = this.metrics.start("graph");
+		try {
+			graph = ReactorGraph.of(this.getProjects());
+			final BitSet changed = new BitSet(graph.size());
+			for (final SourceCodeChanges module : sourceCodeChanges) {
+				final int index = graph.indexOf(module.getGroupId(), module.getArtifactId());
+				if (module.hasDiff() && index >= 0) {
+					changed.set(index);
+				}
+			}
+			affected = this.includeDownstream
+					? graph.downstream(changed)
+					: changed;
+			this
+				.getLog()
+				.info("Changed       : " + changed.cardinality() + " / " + graph.size() + " modules");
+		} finally {
+			graphTimer.stop();
+		}
+		
+		final String projectList = graph.toProjectList(affected, this.affectedSeparator);
+		this.getLog().info("Affected      : " + affected.cardinality() + " / " + graph.size() + " modules");
+		this.getLog().info(projectList.isEmpty()
+				? "No affected modules."
+				: projectList);
+		if (this.affectedFile != null && this.affectedFile.length() > 0) {
+			final Path file = Paths.get(this.affectedFile);
+			try {
+				if (file.getParent() != null) {
+					Files.createDirectories(file.getParent());
+				}
+				Files.write(file, (projectList + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+			} catch (final IOException e) {
+				throw new MojoExecutionException("An error occurred while writing output: " + this.affectedFile, e);
+			}
+		}
+		this.reportMetrics();
+	}
+}
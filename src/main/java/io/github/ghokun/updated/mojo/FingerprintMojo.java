@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.mojo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import io.github.ghokun.updated.metrics.Metrics;
+import io.github.ghokun.updated.reactor.FingerprintManifest;
+import io.github.ghokun.updated.scm.SourceCodeChangeDetector;
+import io.github.ghokun.updated.scm.SourceCodeChangeDetectorFactory;
+import io.github.ghokun.updated.scm.SourceCodeManagement;
+
+/**
+ * Updated Maven Plugin Fingerprint Mojo. This mojo fingerprints committed content of each module from source code
+ * management, compares fingerprints to those of an earlier build and records them. Modules with the same fingerprint
+ * have the same sources and parent POMs, hence they do not need to be built or deployed again. Modules with uncommitted
+ * changes are always changed, and their recorded fingerprints are kept as they are.
+ *
+ * <pre>
+ * // Default
+ * mvn io.github.ghokun:updated-maven-plugin:fingerprint
+ *
+ * // Builds modules changed since last recorded build only
+ * mvn io.github.ghokun:updated-maven-plugin:fingerprint -DchangedFile=target/changed.txt -DupdateManifest=false
+ * mvn deploy -pl $(cat target/changed.txt)
+ * mvn io.github.ghokun:updated-maven-plugin:fingerprint
+ * </pre>
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+@Mojo(name = "fingerprint", inheritByDefault = false, aggregator = true, threadSafe = true)
+public class FingerprintMojo extends AbstractUpdatedMojo {
+	
+	/**
+	 * Source code management type. Defaults to GIT which uses Eclipse JGit.
+	 */
+	@Parameter(defaultValue = "GIT", property = "scm", required = false)
+	private SourceCodeManagement scm;
+	
+	/**
+	 * Fingerprint manifest of the last recorded build. Keep it outside of build directory, or restore it, to compare
+	 * builds after a clean.
+	 */
+	@Parameter(	defaultValue = "${project.build.directory}/updated/fingerprints.txt", property = "manifestFile",
+				required = false)
+	private String manifestFile;
+	
+	/**
+	 * If true, current fingerprints replace the manifest.
+	 */
+	@Parameter(defaultValue = "true", property = "updateManifest", required = false)
+	private boolean updateManifest;
+	
+	/**
+	 * File to write changed modules to, in -pl format. Does not produce output if left blank.
+	 */
+	@Parameter(property = "changedFile", required = false)
+	private String changedFile;
+	
+	@Override
+	public void execute() throws MojoExecutionException {
+		final Path manifestPath = Paths.get(this.manifestFile);
+		final FingerprintManifest current;
+		final Metrics.Timer fingerprintTimer = this.metrics.start("fingerprint");
+		try {
+			current = new FingerprintManifest(SourceCodeChangeDetectorFactory
+				.getDetector(this.scm)
+				.fingerprints(this.project, this.getProjects(), this.getLog()));
+		} finally {
+			fingerprintTimer.stop();
+		}
+		
+		final List<String> changed;
+		try {
+			final FingerprintManifest previous = FingerprintManifest.read(manifestPath);
+			changed = current.changedSince(previous);
+			if (this.showProgress) {
+				this.getLog().info("");
+				this.getLog().info("Fingerprints:");
+				current
+					.getFingerprints()
+					.forEach((coords, fingerprint) -> this
+						.getLog()
+						.info(fingerprint + " " + coords + (changed.contains(coords)
+								? " (changed)"
+								: "")));
+			}
+			this.getLog().info("");
+			this
+				.getLog()
+				.info("Changed       : " + changed.size() + " / " + current.getFingerprints().size() + " modules");
+			if (this.getProjects().size() > current.getFingerprints().size()) {
+				this
+					.getLog()
+					.warn((this.getProjects().size() - current.getFingerprints().size())
+							+ " modules are not committed and have no fingerprint.");
+			}
+			final Map<String, String> recorded = new LinkedHashMap<>();
+			final List<String> uncommitted = new ArrayList<>();
+			current.getFingerprints().forEach((coords, fingerprint) -> {
+				if (!SourceCodeChangeDetector.UNCOMMITTED.equals(fingerprint)) {
+					recorded.put(coords, fingerprint);
+				} else {
+					uncommitted.add(coords);
+					if (previous.getFingerprints().containsKey(coords)) {
+						recorded.put(coords, previous.getFingerprints().get(coords));
+					}
+				}
+			});
+			if (!uncommitted.isEmpty()) {
+				this
+					.getLog()
+					.warn(uncommitted.size() + " modules have uncommitted changes, they are changed and their"
+							+ " fingerprints are not updated: " + String.join(",", uncommitted));
+			}
+			
+			final String projectList = String.join(",", changed);
+			if (this.changedFile != null && this.changedFile.length() > 0) {
+				final Path file = Paths.get(this.changedFile);
+				if (file.toAbsolutePath().getParent() != null) {
+					Files.createDirectories(file.toAbsolutePath().getParent());
+				}
+				Files.write(file, (projectList + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+			}
+			if (this.updateManifest) {
+				new FingerprintManifest(recorded).write(manifestPath);
+				this.getLog().info("Fingerprints written to " + manifestPath);
+			}
+		} catch (final IOException e) {
+			throw new MojoExecutionException("An error occurred while processing fingerprints: " + manifestPath, e);
+		}
+		this.reportMetrics();
+	}
+}
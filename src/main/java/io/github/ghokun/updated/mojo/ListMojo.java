@@ -24,17 +24,28 @@
 
 package io.github.ghokun.updated.mojo;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
-import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.resolution.VersionRangeResult;
 
 import io.github.ghokun.updated.enumeration.LineEnding;
+import io.github.ghokun.updated.enumeration.OutputFormat;
+import io.github.ghokun.updated.metrics.Metrics;
+import io.github.ghokun.updated.output.ListRow;
+import io.github.ghokun.updated.output.ListTemplate;
+import io.github.ghokun.updated.output.ListWriter;
+import io.github.ghokun.updated.output.LogWriter;
 
 /**
  * Updated Maven Plugin List Mojo. This mojo lists local and remote versions of all sub-modules (recursively). Uses
@@ -47,14 +58,20 @@ import io.github.ghokun.updated.enumeration.LineEnding;
  * // Outputs to myFile.csv
  * mvn io.github.ghokun:updated-maven-plugin:list -DoutputFile=myFile
  *
+ * // Outputs one JSON object per line to myFile.ndjson, without repeating it in build log
+ * mvn io.github.ghokun:updated-maven-plugin:list -DoutputFile=myFile -DoutputFormat=NDJSON -DechoOutput=false
+ *
  * // Displays specified fields in template
  * mvn io.github.ghokun:updated-maven-plugin:list -Dheader=artifact,local,remote -Dtemplate=artifactId,localVersion,remoteVersion
+ *
+ * // Resolves remote versions of 8 modules at once
+ * mvn io.github.ghokun:updated-maven-plugin:list -DresolverThreads=8
  * </pre>
  *
  * @author ghokun
  * @since 1.0.0
  */
-@Mojo(name = "list", inheritByDefault = false, aggregator = true)
+@Mojo(name = "list", inheritByDefault = false, aggregator = true, threadSafe = true)
 public class ListMojo extends AbstractUpdatedMojo {
 	
 	/**
@@ -79,23 +96,44 @@ public class ListMojo extends AbstractUpdatedMojo {
 	
 	/**
 	 * Template for result. Available parameters are [baseDir, pomPath, groupId, artifactId, localVersion,
-	 * remoteVersion, remoteRepositoryId, remoteRepositoryUrl]. Any other string is regarded as static text. Parameters
-	 * are evaluated per-module.
+	 * remoteVersion, remoteRepositoryId, remoteRepositoryUrl]. Parameters can be written in braces, e.g. {groupId}, or
+	 * bare. Any other string is regarded as static text. Parameters are evaluated per-module.
 	 */
 	@Parameter(	defaultValue = "baseDir,groupId:artifactId,localVersion,remoteVersion,remoteRepositoryId,remoteRepositoryUrl",
 				property = "template", required = false)
 	private String template;
 	
 	/**
-	 * Output file name. Produces a csv file, regardless of given extension. Does not produce output if left blank.
+	 * Output file name. Extension of {@link #outputFormat} is appended, regardless of given extension. Does not produce
+	 * output if left blank. Written in UTF-8 as modules are resolved.
 	 */
 	@Parameter(property = "outputFile", required = false)
 	private String outputFile;
 	
 	private String getOutputFile() {
-		return this.outputFile != null && this.outputFile.length() > 0 ? this.outputFile + ".csv" : "";
+		return this.outputFile != null && this.outputFile.length() > 0
+				? this.outputFile + "." + this.outputFormat.getExtension()
+				: "";
 	}
 	
+	/**
+	 * Output format.
+	 *
+	 * <pre>
+	 * CSV    : Rendered template per module, preceded by header if printHeader is true.
+	 * NDJSON : One JSON object per module and line. Header and template are not used.
+	 * JSON   : JSON array of module objects. Header and template are not used.
+	 * </pre>
+	 */
+	@Parameter(defaultValue = "CSV", property = "outputFormat", required = false)
+	private OutputFormat outputFormat;
+	
+	/**
+	 * If true, output is also printed to build log.
+	 */
+	@Parameter(defaultValue = "true", property = "echoOutput", required = false)
+	private boolean echoOutput;
+	
 	/**
 	 * Line endings. If empty uses system default (Unix \n, Windows \r\n).
 	 */
@@ -120,62 +158,105 @@ public class ListMojo extends AbstractUpdatedMojo {
 		this.getLog().info("  header       : " + this.header);
 		this.getLog().info("  template     : " + this.template);
 		this.getLog().info("  outputFile   : " + this.getOutputFile());
+		this.getLog().info("  outputFormat : " + this.outputFormat);
+		this.getLog().info("  echoOutput   : " + this.echoOutput);
 		this.getLog().info("  lineEnding   : " + this.getComputedLineEnding());
+		this.getLog().info("  threads      : " + this.resolverThreads);
 		
-		final StringBuilder resultBuilder = new StringBuilder();
-		if (this.printHeader) {
-			resultBuilder.append(this.header);
-		}
-		
+		final List<MavenProject> projects = new ArrayList<>(this.getProjects());
 		int progress = 0;
 		if (this.showProgress) {
 			this.getLog().info("");
 			this.getLog().info("Progress:");
 		}
-		for (final MavenProject p : this.getProjects()) {
-			if (this.showProgress) {
-				this
-					.getLog()
-					.info(++progress + " / " + this.getProjects().size() + " [" + p.getGroupId() + ":"
-							+ p.getArtifactId() + "]");
+		final ListTemplate compiledTemplate = ListTemplate.compile(this.template);
+		final List<ListWriter> writers = new ArrayList<>();
+		final ExecutorService executor = this.newResolverExecutor();
+		// Send all lookups at once, consume them in reactor order
+		final List<Future<VersionRangeResult>> lookups = new ArrayList<>(projects.size());
+		try {
+			for (final MavenProject p : projects) {
+				lookups
+					.add(this
+						.submitLatestVersionOfArtifact(executor,
+							p.getArtifact().getGroupId(),
+							p.getArtifact().getArtifactId(),
+							"[0,)"));
 			}
-			final VersionRangeResult result = this
-				.findLatestVersionOfArtifact(p.getArtifact().getGroupId(), p.getArtifact().getArtifactId(), "[0,)");
 			
-			if (this.printAll || !p.getVersion().equals(String.valueOf(result.getHighestVersion()))) {
-				
-				final RemoteRepository remoteRepository = (RemoteRepository) result
-					.getRepository(result.getHighestVersion());
-				String remoteRepositoryId = null;
-				String remoteRepositoryUrl = null;
-				if (remoteRepository != null) {
-					remoteRepositoryId = remoteRepository.getId();
-					remoteRepositoryUrl = remoteRepository.getUrl();
+			// Rows are echoed as soon as their module is resolved, output file is flushed on close
+			ListWriter console = null;
+			if (this.echoOutput) {
+				this.getLog().info("");
+				this.getLog().info("Output:");
+				console = ListWriter
+					.create(this.outputFormat, new LogWriter(this.getLog()), this.getLineEnding(), compiledTemplate);
+				writers.add(console);
+			}
+			if (this.getOutputFile().length() > 0) {
+				writers
+					.add(ListWriter
+						.create(this.outputFormat,
+							Files.newBufferedWriter(Paths.get(this.getOutputFile()), StandardCharsets.UTF_8),
+							this.getLineEnding(),
+							compiledTemplate));
+			}
+			if (this.printHeader) {
+				for (final ListWriter writer : writers) {
+					writer.writeHeader(this.header);
+				}
+				if (console != null) {
+					console.flush();
+				}
+			}
+			
+			for (int i = 0; i < projects.size(); i++) {
+				final MavenProject p = projects.get(i);
+				final VersionRangeResult result;
+				final Metrics.Timer resolveWaitTimer = this.metrics.start("resolve.wait");
+				try {
+					result = this
+						.awaitLatestVersionOfArtifact(lookups.get(i), p.getGroupId() + ":" + p.getArtifactId());
+				} finally {
+					resolveWaitTimer.stop();
+				}
+				if (this.showProgress) {
+					this
+						.getLog()
+						.info(++progress + " / " + projects.size() + " [" + p.getGroupId() + ":" + p.getArtifactId()
+								+ "]");
 				}
 				
-				resultBuilder
-					.append(resultBuilder.length() > 0 ? this.getLineEnding() : "")
-					.append(this.template
-						.replace("baseDir", p.getBasedir().getPath())
-						.replace("pomPath", p.getFile().getPath())
-						.replace("groupId", p.getGroupId())
-						.replace("artifactId", p.getArtifactId())
-						.replace("localVersion", p.getVersion())
-						.replace("remoteVersion", String.valueOf(result.getHighestVersion()))
-						.replace("remoteRepositoryId", String.valueOf(remoteRepositoryId))
-						.replace("remoteRepositoryUrl", String.valueOf(remoteRepositoryUrl)));
+				if (this.printAll || !p.getVersion().equals(String.valueOf(result.getHighestVersion()))) {
+					final Metrics.Timer outputTimer = this.metrics.start("output");
+					try {
+						final ListRow row = ListRow.of(p, result);
+						for (final ListWriter writer : writers) {
+							writer.writeRow(row);
+						}
+						if (console != null) {
+							console.flush();
+						}
+					} finally {
+						outputTimer.stop();
+					}
+				}
 			}
-		}
-		this.getLog().info("");
-		this.getLog().info("Output:" + this.getLineEnding() + resultBuilder.toString());
-		this.getLog().info("");
-		this.cleanUp();
-		if (this.getOutputFile().length() > 0) {
-			try (FileWriter writer = new FileWriter(this.outputFile + ".csv")) {
-				writer.write(resultBuilder.toString());
-			} catch (final IOException e) {
-				this.getLog().error(e);
+		} catch (final IOException e) {
+			throw new MojoExecutionException("An error occurred while writing output: " + this.getOutputFile(), e);
+		} finally {
+			// Lookups are left over only if an earlier one failed
+			this.shutdownResolverExecutor(executor, lookups);
+			for (final ListWriter writer : writers) {
+				try {
+					writer.close();
+				} catch (final IOException e) {
+					this.getLog().error(e);
+				}
 			}
+			this.cleanUp();
 		}
+		this.getLog().info("");
+		this.reportMetrics();
 	}
-}
\ No newline at end of file
+}
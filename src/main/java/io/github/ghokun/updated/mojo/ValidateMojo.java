@@ -24,17 +24,22 @@
 
 package io.github.ghokun.updated.mojo;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.resolution.VersionRangeResult;
 
 import io.github.ghokun.updated.enumeration.ValidationPolicy;
-import io.github.ghokun.updated.scm.SourceCodeChangeDetectorFactory;
+import io.github.ghokun.updated.metrics.Metrics;
 import io.github.ghokun.updated.scm.SourceCodeChanges;
-import io.github.ghokun.updated.scm.SourceCodeManagement;
 
 /**
  * Updated Maven Plugin Validate Mojo. Purpose of this mojo is to determine source code changes in modules and check
@@ -47,20 +52,22 @@ import io.github.ghokun.updated.scm.SourceCodeManagement;
  *
  * // Enforcing policy
  * mvn io.github.ghokun:updated-maven-plugin:validate -Dpolicy=ENFORCING
+ *
+ * // Validates uncommitted changes too, e.g. in a pre-commit hook
+ * mvn io.github.ghokun:updated-maven-plugin:validate -DchangeScope=WORKING_TREE
+ *
+ * // Ignores changes merged to remote branch after local branch was created
+ * mvn io.github.ghokun:updated-maven-plugin:validate -DcomparisonBase=MERGE_BASE
+ *
+ * // Resolves remote versions of all modules while changes are detected
+ * mvn io.github.ghokun:updated-maven-plugin:validate -DprefetchVersions -DresolverThreads=8
  * </pre>
  *
  * @author ghokun
  * @since 1.0.0
  */
-@Mojo(name = "validate", inheritByDefault = false, aggregator = true)
-public class ValidateMojo extends AbstractUpdatedMojo {
-	
-	/**
-	 * Source code management type. Defaults to GIT which uses Eclipse JGit. This is here for future implementations of
-	 * different SCMs.
-	 */
-	@Parameter(defaultValue = "GIT", property = "scm", required = false)
-	private SourceCodeManagement scm;
+@Mojo(name = "validate", inheritByDefault = false, aggregator = true, threadSafe = true)
+public class ValidateMojo extends AbstractChangeDetectionMojo {
 	
 	/**
 	 * Validation policy.
@@ -74,22 +81,59 @@ public class ValidateMojo extends AbstractUpdatedMojo {
 	private ValidationPolicy policy;
 	
 	/**
-	 * Remote branch name to validate against.
+	 * If true, prints detailed diff. If false, change detection of a module stops at its first change, which is much
+	 * faster on large repositories.
 	 */
-	@Parameter(defaultValue = "HEAD", property = "remote", required = false)
-	private String remoteBranch;
+	@Parameter(defaultValue = "true", property = "showChangeDetails", required = false)
+	private boolean showChangeDetails;
 	
 	/**
-	 * If true, prints detailed diff.
+	 * If true, remote versions of all modules are resolved in background while source code changes are detected.
+	 * Otherwise only changed modules are resolved, each one as soon as its first change is detected.
 	 */
-	@Parameter(defaultValue = "true", property = "showChangeDetails", required = false)
-	private boolean showChangeDetails;
+	@Parameter(defaultValue = "false", property = "prefetchVersions", required = false)
+	private boolean prefetchVersions;
 	
 	@Override
 	public void execute() throws MojoExecutionException, MojoFailureException {
-		final SourceCodeChanges sourceCodeChanges = SourceCodeChangeDetectorFactory
-			.getDetector(this.scm)
-			.detectChanges(this.project, this.getProjects(), this.getLog(), this.remoteBranch);
+		final ExecutorService executor = this.newResolverExecutor();
+		// Remote version lookups by module coordinates, overlapping with change detection
+		final Map<String, Future<VersionRangeResult>> lookups = new ConcurrentHashMap<>();
+		final boolean shouldThrowException;
+		try {
+			shouldThrowException = this.validate(executor, lookups);
+		} finally {
+			// Prefetched lookups of unchanged modules are not needed anymore
+			this.shutdownResolverExecutor(executor, lookups.values());
+			this.cleanUp();
+		}
+		this.reportMetrics();
+		if (shouldThrowException) {
+			throw new MojoExecutionException("You have validation errors. Please fix them before continuing.");
+		}
+	}
+	
+	private boolean validate(ExecutorService executor, Map<String, Future<VersionRangeResult>> lookups)
+			throws MojoExecutionException {
+		if (this.prefetchVersions) {
+			for (final MavenProject p : this.getProjects()) {
+				lookups
+					.put(p.getGroupId() + ":" + p.getArtifactId(),
+						this.submitLatestVersionOfArtifact(executor, p.getGroupId(), p.getArtifactId(), ":[0,)"));
+			}
+		}
+		
+		final SourceCodeChanges sourceCodeChanges = this
+			.detectChanges(this
+				.newChangeDetectionRequest()
+				.setFirstChangeOnly(!this.showChangeDetails)
+				.setFirstChangeListener(module -> lookups
+					.computeIfAbsent(module.getCoords(),
+						coords -> this
+							.submitLatestVersionOfArtifact(executor,
+								module.getGroupId(),
+								module.getArtifactId(),
+								":[0,)"))));
 		
 		if (this.showChangeDetails) {
 			this.getLog().info("Change Details:" + System.lineSeparator() + sourceCodeChanges.toString());
@@ -107,8 +151,21 @@ public class ValidateMojo extends AbstractUpdatedMojo {
 			}
 			if (module.hasDiff()) {
 				
-				final VersionRangeResult versionRangeResult = this
-					.findLatestVersionOfArtifact(module.getGroupId(), module.getArtifactId(), ":[0,)");
+				final VersionRangeResult versionRangeResult;
+				final Metrics.Timer resolveWaitTimer = this.metrics.start("resolve.wait");
+				try {
+					versionRangeResult = this
+						.awaitLatestVersionOfArtifact(lookups
+							.computeIfAbsent(module.getCoords(),
+								coords -> this
+									.submitLatestVersionOfArtifact(executor,
+										module.getGroupId(),
+										module.getArtifactId(),
+										":[0,)")),
+							module.getCoords());
+				} finally {
+					resolveWaitTimer.stop();
+				}
 				
 				if (versionRangeResult != null && versionRangeResult.getHighestVersion() != null
 						&& module.getVersion().equals(versionRangeResult.getHighestVersion().toString())) {
@@ -116,12 +173,16 @@ public class ValidateMojo extends AbstractUpdatedMojo {
 					final RemoteRepository remoteRepository = (RemoteRepository) versionRangeResult
 						.getRepository(versionRangeResult.getHighestVersion());
 					
-					final String validation = new StringBuilder()
+					final StringBuilder validationBuilder = new StringBuilder()
 						.append("Module ")
-						.append(module.getCoords())
-						.append(" has ")
-						.append(module.diffCount())
-						.append(" changes. However local version is the same with the remote version. Version: ")
+						.append(module.getCoords());
+					if (this.showChangeDetails) {
+						validationBuilder.append(" has ").append(module.diffCount()).append(" changes.");
+					} else {
+						validationBuilder.append(" has changes.");
+					}
+					final String validation = validationBuilder
+						.append(" However local version is the same with the remote version. Version: ")
 						.append(module.getVersion())
 						.append(", Repository ID: ")
 						.append(remoteRepository.getId())
@@ -139,9 +200,6 @@ public class ValidateMojo extends AbstractUpdatedMojo {
 				}
 			}
 		}
-		this.cleanUp();
-		if (shouldThrowException) {
-			throw new MojoExecutionException("You have validation errors. Please fix them before continuing.");
-		}
+		return shouldThrowException;
 	}
 }
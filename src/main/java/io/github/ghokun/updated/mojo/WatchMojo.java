@@ -0,0 +1,564 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.mojo;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.VersionRangeResult;
+
+import io.github.ghokun.updated.enumeration.ChangeScope;
+import io.github.ghokun.updated.enumeration.OutputFormat;
+import io.github.ghokun.updated.metrics.Metrics;
+import io.github.ghokun.updated.output.ListRow;
+import io.github.ghokun.updated.output.ListTemplate;
+import io.github.ghokun.updated.output.ListWriter;
+import io.github.ghokun.updated.output.LogWriter;
+import io.github.ghokun.updated.scm.ChangeDetectionRequest;
+import io.github.ghokun.updated.scm.DiffType;
+import io.github.ghokun.updated.scm.SourceCodeChanges;
+import io.github.ghokun.updated.scm.SourceCodeManagement;
+
+/**
+ * Updated Maven Plugin Watch Mojo. This mojo indexes the reactor once, then keeps source code changes and remote
+ * versions of modules in memory and answers queries read from standard input until it is quit. Module directories are
+ * watched for file system events; changes are detected again in background as soon as relevant events settle, and
+ * remote versions are resolved once per module until refreshed.
+ *
+ * <pre>
+ * // Default
+ * mvn io.github.ghokun:updated-maven-plugin:watch
+ *
+ * // Watches uncommitted changes too
+ * mvn io.github.ghokun:updated-maven-plugin:watch -DchangeScope=WORKING_TREE
+ *
+ * // Queries
+ * status   : Changed modules with number of changes.
+ * details  : Changed files of changed modules.
+ * list     : Modules whose local version differs from remote version.
+ * validate : Changed modules whose local version is the same with remote version.
+ * refresh  : Fetches remote branch, resolves remote versions and detects changes again.
+ * quit     : Stops watching.
+ * </pre>
+ *
+ * Committed changes are detected again when HEAD or refs of the repository change, INDEX scope also when the index
+ * changes. WORKING_TREE scope and FILESYSTEM scm detect changes again on changes of module files too, and only walk
+ * directories of modules that had file events. Changes of other modules are kept from previous detection. Events of
+ * root module files, HEAD, refs or index detect all modules again. FILESYSTEM scm does not update its snapshot while
+ * watching. Reactor is not read again, modules and local versions are those of watch start.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+@Mojo(name = "watch", inheritByDefault = false, aggregator = true, threadSafe = true)
+public class WatchMojo extends AbstractChangeDetectionMojo {
+	
+	private static final String LIST_TEMPLATE = "groupId:artifactId,localVersion,remoteVersion";
+	private static final Set<String> SKIPPED_DIRECTORIES = new HashSet<>(Arrays.asList(".git", ".hg", ".svn"));
+	
+	/**
+	 * Milliseconds without relevant file system events after which changes are detected again.
+	 */
+	@Parameter(defaultValue = "200", property = "watchDelay", required = false)
+	private long watchDelay;
+	
+	/**
+	 * Relevant file system events so far, bumped by watch thread.
+	 */
+	private final AtomicLong events = new AtomicLong();
+	
+	/**
+	 * Directories of modules that had file events since last detection, filled by watch thread.
+	 */
+	private final Set<Path> changedModules = ConcurrentHashMap.newKeySet();
+	
+	/**
+	 * Set by watch thread when all modules need to be detected again.
+	 */
+	private final AtomicBoolean detectAll = new AtomicBoolean(true);
+	
+	/**
+	 * Remote version lookups by module coordinates.
+	 */
+	private final Map<String, Future<VersionRangeResult>> lookups = new ConcurrentHashMap<>();
+	
+	private ChangeDetectionRequest request;
+	private SourceCodeChanges changes;
+	private long detectedEvents = -1;
+	private Path gitDirectory;
+	private Set<Path> skippedDirectories;
+	private List<Path> moduleDirectories;
+	
+	@Override
+	public void execute() throws MojoExecutionException {
+		
+		this.getLog().info("Running io.github.ghokun:updated-maven-plugin:watch goal");
+		this.getLog().info("Parameters:");
+		this.getLog().info("  scm          : " + this.scm);
+		this.getLog().info("  changeScope  : " + this.changeScope);
+		this.getLog().info("  watchDelay   : " + this.watchDelay);
+		
+		final File root = this.project.getBasedir();
+		this.gitDirectory = new File(root, ".git").isDirectory() ? new File(root, ".git").toPath() : null;
+		this.skippedDirectories = new HashSet<>();
+		for (final MavenProject p : this.getProjects()) {
+			this.skippedDirectories.add(Paths.get(p.getBuild().getDirectory()));
+		}
+		// Filled by remote version lookups
+		this.skippedDirectories.add(Paths.get(this.tempLocalRepo).toAbsolutePath());
+		this.moduleDirectories = new ArrayList<>();
+		for (final MavenProject p : this.getProjects()) {
+			this.moduleDirectories.add(p.getBasedir().toPath());
+		}
+		// Deepest first, so that a file is owned by its innermost module
+		this.moduleDirectories.sort(Comparator.comparingInt(Path::getNameCount).reversed());
+		// A stable baseline, otherwise every detection would only report changes since previous one
+		this.request = this.newChangeDetectionRequest().setUpdateSnapshot(false);
+		
+		final ExecutorService executor = this.newResolverExecutor();
+		Thread watchThread = null;
+		try (final WatchService watcher = FileSystems.getDefault().newWatchService()) {
+			// Remote versions are resolved while changes are detected
+			for (final MavenProject p : this.getProjects()) {
+				this.lookup(executor, p);
+			}
+			int directories = 0;
+			final Metrics.Timer watchRegisterTimer = this.metrics.start("watch.register");
+			try {
+				for (final MavenProject p : this.getProjects()) {
+					if (p == this.project || !p.getBasedir().toPath().startsWith(root.toPath())) {
+						directories += this.register(watcher, p.getBasedir().toPath());
+					}
+				}
+			} finally {
+				watchRegisterTimer.stop();
+			}
+			this.changes();
+			this.request.setFetch(false);
+			
+			watchThread = new Thread(() -> this.watch(watcher), "updated-watch");
+			watchThread.setDaemon(true);
+			watchThread.start();
+			
+			this.getLog().info("");
+			this
+				.getLog()
+				.info("Watching " + directories + " directories of " + this.getProjects().size() + " modules.");
+			this.getLog().info("Queries: status, details, list, validate, refresh, quit");
+			this.query(executor);
+		} catch (final IOException e) {
+			throw new MojoExecutionException("An error occurred while watching modules", e);
+		} finally {
+			if (watchThread != null) {
+				watchThread.interrupt();
+			}
+			this.shutdownResolverExecutor(executor, this.lookups.values());
+			this.cleanUp();
+		}
+		this.getLog().info("");
+		this.reportMetrics();
+	}
+	
+	/**
+	 * Answers queries of standard input until quit or end of input.
+	 */
+	private void query(ExecutorService executor) throws IOException {
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			final String query = line.trim();
+			if (query.isEmpty()) {
+				continue;
+			}
+			if ("quit".equals(query) || "exit".equals(query)) {
+				return;
+			}
+			final long start = System.nanoTime();
+			final Metrics.Timer watchQueryTimer = this.metrics.start("watch.query");
+			try {
+				switch (query) {
+					case "status":
+						this.status();
+						break;
+					case "details":
+						this.getLog().info("Change Details:" + System.lineSeparator() + this.changes().toString());
+						break;
+					case "list":
+						this.list(executor);
+						break;
+					case "validate":
+						this.validate(executor);
+						break;
+					case "refresh":
+						this.refresh(executor);
+						break;
+					default:
+						this.getLog().warn("Unknown query: " + query);
+						continue;
+				}
+			} catch (final MojoExecutionException e) {
+				this.getLog().error(e.getMessage(), e.getCause());
+			} finally {
+				watchQueryTimer.stop();
+			}
+			this
+				.getLog()
+				.info(query + " answered in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+		}
+	}
+	
+	private void status() throws MojoExecutionException {
+		int changedModules = 0;
+		for (final SourceCodeChanges module : this.changes()) {
+			if (module.hasDiff()) {
+				changedModules++;
+				final StringBuilder status = new StringBuilder(module.getCoords()).append(" :");
+				for (final DiffType type : DiffType.values()) {
+					if (module.diffCount(type) > 0) {
+						status.append(" ").append(type).append(" ").append(module.diffCount(type));
+					}
+				}
+				this.getLog().info(status.toString());
+			}
+		}
+		this.getLog().info(changedModules + " of " + this.getProjects().size() + " modules changed.");
+	}
+	
+	private void list(ExecutorService executor) throws MojoExecutionException, IOException {
+		try (final ListWriter writer = ListWriter
+			.create(OutputFormat.CSV, new LogWriter(this.getLog()), System.lineSeparator(),
+				ListTemplate.compile(LIST_TEMPLATE))) {
+			for (final MavenProject p : this.getProjects()) {
+				final VersionRangeResult result = this
+					.awaitLatestVersionOfArtifact(this.lookup(executor, p), p.getGroupId() + ":" + p.getArtifactId());
+				if (!p.getVersion().equals(String.valueOf(result.getHighestVersion()))) {
+					writer.writeRow(ListRow.of(p, result));
+				}
+			}
+		}
+	}
+	
+	private void validate(ExecutorService executor) throws MojoExecutionException {
+		final Map<String, MavenProject> projects = new HashMap<>();
+		for (final MavenProject p : this.getProjects()) {
+			projects.put(p.getGroupId() + ":" + p.getArtifactId(), p);
+		}
+		int errors = 0;
+		for (final SourceCodeChanges module : this.changes()) {
+			final MavenProject p = projects.get(module.getCoords());
+			if (!module.hasDiff() || p == null) {
+				continue;
+			}
+			final VersionRangeResult result = this
+				.awaitLatestVersionOfArtifact(this.lookup(executor, p), module.getCoords());
+			if (result != null && result.getHighestVersion() != null
+					&& module.getVersion().equals(result.getHighestVersion().toString())) {
+				final ArtifactRepository repository = result.getRepository(result.getHighestVersion());
+				if (!(repository instanceof RemoteRepository)) {
+					this
+						.getLog()
+						.error("Module " + module.getCoords() + " has " + module.diffCount()
+								+ " changes, but no remote repository is known for its version " + module.getVersion()
+								+ ". Check repositories of the project.");
+					errors++;
+					continue;
+				}
+				final RemoteRepository remoteRepository = (RemoteRepository) repository;
+				this
+					.getLog()
+					.warn("Module " + module.getCoords() + " has " + module.diffCount()
+							+ " changes. However local version is the same with the remote version. Version: "
+							+ module.getVersion() + ", Repository ID: " + remoteRepository.getId()
+							+ ", Repository URL: " + remoteRepository.getUrl());
+				errors++;
+			}
+		}
+		this.getLog().info(errors + " validation errors.");
+	}
+	
+	/**
+	 * Drops remote versions and changes, then fetches and detects them again.
+	 */
+	private synchronized void refresh(ExecutorService executor) throws MojoExecutionException {
+		this.lookups.clear();
+		for (final MavenProject p : this.getProjects()) {
+			this.lookup(executor, p);
+		}
+		this.request.setFetch(this.fetch);
+		try {
+			this.detectedEvents = -1;
+			this.detectAll.set(true);
+			this.changes();
+		} finally {
+			this.request.setFetch(false);
+		}
+	}
+	
+	private Future<VersionRangeResult> lookup(ExecutorService executor, MavenProject p) {
+		return this.lookups
+			.computeIfAbsent(p.getGroupId() + ":" + p.getArtifactId(),
+				coords -> this.submitLatestVersionOfArtifact(executor, p.getGroupId(), p.getArtifactId(), "[0,)"));
+	}
+	
+	/**
+	 * Current changes, detected again if relevant events happened since last detection. Watch thread records changed
+	 * modules before it counts an event, so modules of counted events are known here.
+	 */
+	private synchronized SourceCodeChanges changes() throws MojoExecutionException {
+		final long events = this.events.get();
+		if (events != this.detectedEvents) {
+			final Set<Path> modules = new HashSet<>();
+			for (final Iterator<Path> module = this.changedModules.iterator(); module.hasNext();) {
+				modules.add(module.next());
+				module.remove();
+			}
+			try {
+				if (this.detectAll.getAndSet(false) || this.changes == null) {
+					this.changes = this.detectChanges(this.request);
+				} else if (!modules.isEmpty()) {
+					this.changes = this.detectChanges(modules);
+				}
+			} catch (final MojoExecutionException e) {
+				this.detectAll.set(true);
+				throw e;
+			}
+			this.detectedEvents = events;
+		}
+		return this.changes;
+	}
+	
+	/**
+	 * Detects changes in directories of given modules and keeps previous changes of other modules.
+	 */
+	private SourceCodeChanges detectChanges(Set<Path> modules) throws MojoExecutionException {
+		final Path root = this.project.getBasedir().toPath();
+		final Set<String> directories = new TreeSet<>();
+		for (final Path module : modules) {
+			directories.add(root.relativize(module).toString().replace(File.separatorChar, '/'));
+		}
+		final SourceCodeChanges detected;
+		try {
+			detected = this.detectChanges(this.request.setDirectories(directories));
+		} finally {
+			this.request.setDirectories(null);
+		}
+		final Map<String, SourceCodeChanges> previous = new HashMap<>();
+		for (final SourceCodeChanges module : this.changes) {
+			previous.put(module.getCoords(), module);
+		}
+		for (final SourceCodeChanges module : detected) {
+			final Path directory = Paths.get(module.getPath());
+			if (modules.stream().noneMatch(directory::startsWith) && previous.containsKey(module.getCoords())) {
+				module.addDiffs(previous.get(module.getCoords()));
+			}
+		}
+		this.metrics.add("modules detected again", directories.size());
+		return detected;
+	}
+	
+	/**
+	 * Waits for events until watch service is closed. Changes are detected again once no relevant event arrived for
+	 * {@link #watchDelay} milliseconds, so that queries find them ready.
+	 */
+	private void watch(WatchService watcher) {
+		try {
+			while (true) {
+				boolean relevant = this.handle(watcher, watcher.take());
+				WatchKey key;
+				while ((key = watcher.poll(this.watchDelay, TimeUnit.MILLISECONDS)) != null) {
+					relevant |= this.handle(watcher, key);
+				}
+				if (relevant) {
+					final long start = System.nanoTime();
+					try {
+						this.changes();
+						this
+							.getLog()
+							.info("Changes detected again in "
+									+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+					} catch (final MojoExecutionException e) {
+						this.getLog().warn("Could not detect changes, will retry on next query.", e);
+					}
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (final ClosedWatchServiceException e) {
+			// Goal is done
+		}
+	}
+	
+	/**
+	 * Registers new directories and marks changes stale.
+	 *
+	 * @return True if an event is relevant to detected changes
+	 */
+	private boolean handle(WatchService watcher, WatchKey key) {
+		boolean relevant = false;
+		final Path directory = (Path) key.watchable();
+		for (final WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				this.detectAll.set(true);
+				relevant = true;
+				continue;
+			}
+			final Path path = directory.resolve((Path) event.context());
+			if (this.isSkipped(path)) {
+				continue;
+			}
+			if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+				try {
+					this.register(watcher, path);
+				} catch (final IOException e) {
+					this.getLog().warn("Could not watch " + path, e);
+				}
+			}
+			if (this.isRelevant(path)) {
+				this.changed(path);
+				relevant = true;
+			}
+		}
+		key.reset();
+		if (relevant) {
+			this.events.incrementAndGet();
+		}
+		return relevant;
+	}
+	
+	/**
+	 * Records module that owns given file. Git metadata and files of root module or of modules outside of it need all
+	 * modules to be detected again.
+	 */
+	private void changed(Path path) {
+		final Path root = this.project.getBasedir().toPath();
+		if (this.gitDirectory == null || !path.startsWith(this.gitDirectory)) {
+			for (final Path module : this.moduleDirectories) {
+				if (path.startsWith(module)) {
+					if (!module.equals(root) && module.startsWith(root)) {
+						this.changedModules.add(module);
+						return;
+					}
+					break;
+				}
+			}
+		}
+		this.detectAll.set(true);
+	}
+	
+	private boolean isRelevant(Path path) {
+		if (this.gitDirectory != null && path.startsWith(this.gitDirectory)) {
+			if (this.scm == SourceCodeManagement.FILESYSTEM) {
+				return false;
+			}
+			final String name = path.getFileName().toString();
+			if (name.endsWith(".lock")) {
+				return false;
+			}
+			if (path.getParent().equals(this.gitDirectory)) {
+				return "HEAD".equals(name) || "packed-refs".equals(name)
+						|| "index".equals(name) && this.changeScope != ChangeScope.COMMITTED;
+			}
+			return true;
+		}
+		return this.scm == SourceCodeManagement.FILESYSTEM || this.changeScope == ChangeScope.WORKING_TREE;
+	}
+	
+	private boolean isSkipped(Path path) {
+		for (final Path skippedDirectory : this.skippedDirectories) {
+			if (path.startsWith(skippedDirectory)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Watches given directory and its subdirectories, except build directories, local repository and version control
+	 * metadata. Of git metadata, only the directory itself and refs are watched.
+	 *
+	 * @return Number of registered directories
+	 */
+	private int register(WatchService watcher, Path start) throws IOException {
+		final int[] directories = new int[1];
+		Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+			
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				final WatchMojo mojo = WatchMojo.this;
+				final boolean gitDirectory = dir.equals(mojo.gitDirectory);
+				if (mojo.isSkipped(dir)
+						|| !gitDirectory && SKIPPED_DIRECTORIES.contains(String.valueOf(dir.getFileName()))
+						|| mojo.gitDirectory != null && mojo.gitDirectory.equals(dir.getParent())
+								&& !"refs".equals(dir.getFileName().toString())) {
+					return FileVisitResult.SKIP_SUBTREE;
+				}
+				dir
+					.register(watcher,
+						StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_DELETE,
+						StandardWatchEventKinds.ENTRY_MODIFY);
+				directories[0]++;
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return directories[0];
+	}
+}
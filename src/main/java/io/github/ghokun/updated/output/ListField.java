@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.output;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Fields of a {@link ListRow} that can be used in list templates and are written by JSON formats. A new field only
+ * needs a constant here.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public enum ListField {
+	
+	/**
+	 * Base directory of module.
+	 */
+	BASE_DIR("baseDir", ListRow::getBaseDir),
+	
+	/**
+	 * Path of module's pom.xml.
+	 */
+	POM_PATH("pomPath", ListRow::getPomPath),
+	
+	/**
+	 * Group ID of module.
+	 */
+	GROUP_ID("groupId", ListRow::getGroupId),
+	
+	/**
+	 * Artifact ID of module.
+	 */
+	ARTIFACT_ID("artifactId", ListRow::getArtifactId),
+	
+	/**
+	 * Version of module in reactor.
+	 */
+	LOCAL_VERSION("localVersion", ListRow::getLocalVersion),
+	
+	/**
+	 * Highest version in remote repositories.
+	 */
+	REMOTE_VERSION("remoteVersion", ListRow::getRemoteVersion),
+	
+	/**
+	 * ID of repository that has remote version.
+	 */
+	REMOTE_REPOSITORY_ID("remoteRepositoryId", ListRow::getRemoteRepositoryId),
+	
+	/**
+	 * URL of repository that has remote version.
+	 */
+	REMOTE_REPOSITORY_URL("remoteRepositoryUrl", ListRow::getRemoteRepositoryUrl);
+	
+	private final String name;
+	private final Function<ListRow, String> accessor;
+	
+	private ListField(final String name, final Function<ListRow, String> accessor) {
+		this.name = name;
+		this.accessor = accessor;
+	}
+	
+	/**
+	 * @return Name of field in templates and JSON
+	 */
+	public String getName() {
+		return this.name;
+	}
+	
+	/**
+	 * @param row Row
+	 * @return Value of this field in given row, may be null
+	 */
+	public String valueOf(ListRow row) {
+		return this.accessor.apply(row);
+	}
+	
+	private static Map<String, ListField> cache;
+	
+	static {
+		cache = new HashMap<>();
+		for (final ListField field : ListField.values()) {
+			cache.put(field.name, field);
+		}
+	}
+	
+	/**
+	 * @param name Name of field in templates and JSON
+	 * @return Field of given name, null if there is none
+	 */
+	public static ListField fromName(final String name) {
+		return cache.get(name);
+	}
+}
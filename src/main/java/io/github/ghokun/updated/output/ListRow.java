@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.output;
+
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.VersionRangeResult;
+
+/**
+ * A single row of list goal output: a module with its remote version.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public final class ListRow {
+	
+	private final String baseDir;
+	private final String pomPath;
+	private final String groupId;
+	private final String artifactId;
+	private final String localVersion;
+	private final String remoteVersion;
+	private final String remoteRepositoryId;
+	private final String remoteRepositoryUrl;
+	
+	/**
+	 * @param baseDir Base directory of module
+	 * @param pomPath Path of module's pom.xml
+	 * @param groupId Group ID
+	 * @param artifactId Artifact ID
+	 * @param localVersion Version of module in reactor
+	 * @param remoteVersion Highest version in remote repositories, may be null
+	 * @param remoteRepositoryId ID of repository that has remote version, may be null
+	 * @param remoteRepositoryUrl URL of repository that has remote version, may be null
+	 */
+	public ListRow(
+			String baseDir,
+			String pomPath,
+			String groupId,
+			String artifactId,
+			String localVersion,
+			String remoteVersion,
+			String remoteRepositoryId,
+			String remoteRepositoryUrl) {
+		super();
+		this.baseDir = baseDir;
+		this.pomPath = pomPath;
+		this.groupId = groupId;
+		this.artifactId = artifactId;
+		this.localVersion = localVersion;
+		this.remoteVersion = remoteVersion;
+		this.remoteRepositoryId = remoteRepositoryId;
+		this.remoteRepositoryUrl = remoteRepositoryUrl;
+	}
+	
+	/**
+	 * Creates row of a module.
+	 *
+	 * @param project Module
+	 * @param result Remote versions of module
+	 * @return Row, remote fields are null if module is not found in remote repositories
+	 */
+	public static ListRow of(MavenProject project, VersionRangeResult result) {
+		final RemoteRepository remoteRepository = (RemoteRepository) result.getRepository(result.getHighestVersion());
+		return new ListRow(project.getBasedir().getPath(),
+			project.getFile().getPath(),
+			project.getGroupId(),
+			project.getArtifactId(),
+			project.getVersion(),
+			result.getHighestVersion() != null ? result.getHighestVersion().toString() : null,
+			remoteRepository != null ? remoteRepository.getId() : null,
+			remoteRepository != null ? remoteRepository.getUrl() : null);
+	}
+	
+	/**
+	 * @return Base directory of module
+	 */
+	public String getBaseDir() {
+		return this.baseDir;
+	}
+	
+	/**
+	 * @return Path of module's pom.xml
+	 */
+	public String getPomPath() {
+		return this.pomPath;
+	}
+	
+	/**
+	 * @return Group ID
+	 */
+	public String getGroupId() {
+		return this.groupId;
+	}
+	
+	/**
+	 * @return Artifact ID
+	 */
+	public String getArtifactId() {
+		return this.artifactId;
+	}
+	
+	/**
+	 * @return Version of module in reactor
+	 */
+	public String getLocalVersion() {
+		return this.localVersion;
+	}
+	
+	/**
+	 * @return Highest version in remote repositories, null if module is not found
+	 */
+	public String getRemoteVersion() {
+		return this.remoteVersion;
+	}
+	
+	/**
+	 * @return ID of repository that has remote version, null if module is not found
+	 */
+	public String getRemoteRepositoryId() {
+		return this.remoteRepositoryId;
+	}
+	
+	/**
+	 * @return URL of repository that has remote version, null if module is not found
+	 */
+	public String getRemoteRepositoryUrl() {
+		return this.remoteRepositoryUrl;
+	}
+	
+}
@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.output;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled list template. A template is parsed once into literal and field tokens, then rendered per row in a single
+ * pass, so values are never searched for field names.
+ *
+ * <pre>
+ * {groupId}:{artifactId} -&gt; {remoteVersion}   explicit fields
+ * groupId:artifactId,remoteVersion               bare field names, as in 1.0.x templates
+ * </pre>
+ *
+ * Braces around anything other than a field name are literal text. Null values are rendered as "null".
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public final class ListTemplate {
+	
+	private final String[] literals;
+	private final ListField[] fields;
+	private final StringBuilder buffer = new StringBuilder();
+	
+	private ListTemplate(List<String> literals, List<ListField> fields) {
+		this.literals = literals.toArray(new String[0]);
+		this.fields = fields.toArray(new ListField[0]);
+	}
+	
+	/**
+	 * Parses template.
+	 *
+	 * @param template Template text
+	 * @return Compiled template
+	 */
+	public static ListTemplate compile(String template) {
+		// literals.get(i) precedes fields.get(i), last literal follows last field
+		final List<String> literals = new ArrayList<>();
+		final List<ListField> fields = new ArrayList<>();
+		final StringBuilder literal = new StringBuilder();
+		int i = 0;
+		while (i < template.length()) {
+			ListField field = null;
+			int length = 0;
+			if (template.charAt(i) == '{') {
+				final int end = template.indexOf('}', i);
+				if (end > 0) {
+					field = ListField.fromName(template.substring(i + 1, end));
+					length = end + 1 - i;
+				}
+			}
+			if (field == null) {
+				for (final ListField candidate : ListField.values()) {
+					if (template.startsWith(candidate.getName(), i)) {
+						field = candidate;
+						length = candidate.getName().length();
+						break;
+					}
+				}
+			}
+			if (field != null) {
+				literals.add(literal.toString());
+				fields.add(field);
+				literal.setLength(0);
+				i += length;
+			} else {
+				literal.append(template.charAt(i++));
+			}
+		}
+		literals.add(literal.toString());
+		return new ListTemplate(literals, fields);
+	}
+	
+	/**
+	 * Renders row into given writer without intermediate strings.
+	 *
+	 * @param row Row
+	 * @param writer Target
+	 * @throws IOException If writer fails
+	 */
+	public void render(ListRow row, Writer writer) throws IOException {
+		for (int i = 0; i < this.fields.length; i++) {
+			writer.write(this.literals[i]);
+			writer.write(String.valueOf(this.fields[i].valueOf(row)));
+		}
+		writer.write(this.literals[this.fields.length]);
+	}
+	
+	/**
+	 * Renders row into a buffer reused between calls. Not thread safe.
+	 *
+	 * @param row Row
+	 * @return Rendered row
+	 */
+	public String render(ListRow row) {
+		this.buffer.setLength(0);
+		for (int i = 0; i < this.fields.length; i++) {
+			this.buffer.append(this.literals[i]).append(this.fields[i].valueOf(row));
+		}
+		return this.buffer.append(this.literals[this.fields.length]).toString();
+	}
+}
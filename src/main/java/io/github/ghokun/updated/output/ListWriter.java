@@ -0,0 +1,271 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+import io.github.ghokun.updated.enumeration.OutputFormat;
+
+/**
+ * Streaming writer of list goal output. Rows are written as soon as they are given, nothing is buffered except by the
+ * underlying writer.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public abstract class ListWriter implements Closeable {
+	
+	/**
+	 * Target of written rows.
+	 */
+	protected final Writer writer;
+	
+	/**
+	 * Line ending between rows.
+	 */
+	protected final String lineEnding;
+	private boolean empty = true;
+	
+	/**
+	 * @param writer Target, closed with this writer
+	 * @param lineEnding Line ending between rows
+	 */
+	protected ListWriter(Writer writer, String lineEnding) {
+		this.writer = writer;
+		this.lineEnding = lineEnding;
+	}
+	
+	/**
+	 * Creates writer of given format.
+	 *
+	 * @param format Output format
+	 * @param writer Target, closed with this writer
+	 * @param lineEnding Line ending between rows
+	 * @param template Row template, only used by {@link OutputFormat#CSV}
+	 * @return ListWriter instance
+	 */
+	public static ListWriter create(OutputFormat format, Writer writer, String lineEnding, ListTemplate template) {
+		switch (format) {
+			case NDJSON:
+				return new NdjsonListWriter(writer, lineEnding);
+			case JSON:
+				return new JsonListWriter(writer, lineEnding);
+			default:
+				return new CsvListWriter(writer, lineEnding, template);
+		}
+	}
+	
+	/**
+	 * Writes header. Formats that name their fields ignore it.
+	 *
+	 * @param header Header line
+	 * @throws IOException If underlying writer fails
+	 */
+	public abstract void writeHeader(String header) throws IOException;
+	
+	/**
+	 * Writes a row.
+	 *
+	 * @param row Row
+	 * @throws IOException If underlying writer fails
+	 */
+	public abstract void writeRow(ListRow row) throws IOException;
+	
+	/**
+	 * Flushes underlying writer, so that written rows reach their destination.
+	 *
+	 * @throws IOException If underlying writer fails
+	 */
+	public void flush() throws IOException {
+		this.writer.flush();
+	}
+	
+	/**
+	 * Writes line ending before every line except the first one.
+	 *
+	 * @throws IOException If underlying writer fails
+	 */
+	protected void startLine() throws IOException {
+		if (!this.empty) {
+			this.writer.write(this.lineEnding);
+		}
+		this.empty = false;
+	}
+	
+	/**
+	 * Writes remaining parts of format, called once on close.
+	 *
+	 * @throws IOException If underlying writer fails
+	 */
+	protected void finish() throws IOException {
+	}
+	
+	@Override
+	public void close() throws IOException {
+		try {
+			this.finish();
+		} finally {
+			this.writer.close();
+		}
+	}
+	
+	/**
+	 * Writes row as a JSON object with one string member per {@link ListField}.
+	 *
+	 * @param row Row
+	 * @throws IOException If underlying writer fails
+	 */
+	protected void writeJsonObject(ListRow row) throws IOException {
+		this.writer.write('{');
+		for (final ListField field : ListField.values()) {
+			this.writeJsonMember(field.getName(), field.valueOf(row), field.ordinal() == 0);
+		}
+		this.writer.write('}');
+	}
+	
+	private void writeJsonMember(String name, String value, boolean first) throws IOException {
+		if (!first) {
+			this.writer.write(',');
+		}
+		this.writeJsonString(name);
+		this.writer.write(':');
+		if (value == null) {
+			this.writer.write("null");
+		} else {
+			this.writeJsonString(value);
+		}
+	}
+	
+	private void writeJsonString(String value) throws IOException {
+		this.writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			switch (c) {
+				case '"':
+					this.writer.write("\\\"");
+					break;
+				case '\\':
+					this.writer.write("\\\\");
+					break;
+				case '\n':
+					this.writer.write("\\n");
+					break;
+				case '\r':
+					this.writer.write("\\r");
+					break;
+				case '\t':
+					this.writer.write("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						this.writer.write(String.format("\\u%04x", (int) c));
+					} else {
+						this.writer.write(c);
+					}
+			}
+		}
+		this.writer.write('"');
+	}
+	
+	private static final class CsvListWriter extends ListWriter {
+		
+		private final ListTemplate template;
+		
+		private CsvListWriter(Writer writer, String lineEnding, ListTemplate template) {
+			super(writer, lineEnding);
+			this.template = template;
+		}
+		
+		@Override
+		public void writeHeader(String header) throws IOException {
+			this.startLine();
+			this.writer.write(header);
+		}
+		
+		@Override
+		public void writeRow(ListRow row) throws IOException {
+			this.startLine();
+			this.template.render(row, this.writer);
+		}
+	}
+	
+	private static final class NdjsonListWriter extends ListWriter {
+		
+		private NdjsonListWriter(Writer writer, String lineEnding) {
+			super(writer, lineEnding);
+		}
+		
+		@Override
+		public void writeHeader(String header) {
+			// Field names are part of every row
+		}
+		
+		@Override
+		public void writeRow(ListRow row) throws IOException {
+			this.startLine();
+			this.writeJsonObject(row);
+		}
+	}
+	
+	private static final class JsonListWriter extends ListWriter {
+		
+		private boolean started;
+		
+		private JsonListWriter(Writer writer, String lineEnding) {
+			super(writer, lineEnding);
+		}
+		
+		@Override
+		public void writeHeader(String header) {
+			// Field names are part of every row
+		}
+		
+		@Override
+		public void writeRow(ListRow row) throws IOException {
+			// Separator leads the row, so that a flushed row is always a complete line
+			if (!this.started) {
+				this.writer.write('[');
+			}
+			this.writer.write(this.lineEnding);
+			if (this.started) {
+				this.writer.write(',');
+			}
+			this.writeJsonObject(row);
+			this.started = true;
+		}
+		
+		@Override
+		protected void finish() throws IOException {
+			if (this.started) {
+				this.writer.write(this.lineEnding);
+				this.writer.write(']');
+			} else {
+				this.writer.write("[]");
+			}
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.output;
+
+import java.io.Writer;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Writer that sends every line to Maven plugin logger at info level. Lines may end with CR, LF or CRLF. Flushing logs
+ * an incomplete line right away; its line ending is skipped when it arrives.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public final class LogWriter extends Writer {
+	
+	private final Log log;
+	private final StringBuilder line = new StringBuilder();
+	private boolean afterCarriageReturn;
+	private boolean afterFlush;
+	
+	/**
+	 * @param log Maven log that lines are written to
+	 */
+	public LogWriter(Log log) {
+		this.log = log;
+	}
+	
+	@Override
+	public void write(char[] cbuf, int off, int len) {
+		for (int i = off; i < off + len; i++) {
+			final char c = cbuf[i];
+			if (c == '\n' && this.afterCarriageReturn) {
+				this.afterCarriageReturn = false;
+				continue;
+			}
+			this.afterCarriageReturn = c == '\r';
+			if (c == '\r' || c == '\n') {
+				if (!this.afterFlush) {
+					this.emit();
+				}
+			} else {
+				this.line.append(c);
+			}
+			this.afterFlush = false;
+		}
+	}
+	
+	@Override
+	public void flush() {
+		if (this.line.length() > 0) {
+			this.emit();
+			this.afterFlush = true;
+		}
+	}
+	
+	@Override
+	public void close() {
+		if (this.line.length() > 0) {
+			this.emit();
+		}
+	}
+	
+	private void emit() {
+		this.log.info(this.line.toString());
+		this.line.setLength(0);
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.reactor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Manifest of module fingerprints. One line per module: groupId:artifactId, a space and the fingerprint.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public final class FingerprintManifest {
+	
+	private final Map<String, String> fingerprints;
+	
+	/**
+	 * @param fingerprints Fingerprints by groupId:artifactId, written in iteration order
+	 */
+	public FingerprintManifest(Map<String, String> fingerprints) {
+		this.fingerprints = fingerprints;
+	}
+	
+	/**
+	 * @param file Manifest file
+	 * @return Manifest in file, empty if file does not exist
+	 * @throws IOException If file could not be read
+	 */
+	public static FingerprintManifest read(Path file) throws IOException {
+		final Map<String, String> fingerprints = new LinkedHashMap<>();
+		if (Files.isRegularFile(file)) {
+			try (final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					final int separator = line.indexOf(' ');
+					if (separator > 0) {
+						fingerprints.put(line.substring(0, separator), line.substring(separator + 1).trim());
+					}
+				}
+			}
+		}
+		return new FingerprintManifest(fingerprints);
+	}
+	
+	/**
+	 * Writes manifest atomically.
+	 * 
+	 * @param file Manifest file, parent directories are created
+	 * @throws IOException If file could not be written
+	 */
+	public void write(Path file) throws IOException {
+		final Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		final Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try {
+			try (final BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+				for (final Map.Entry<String, String> fingerprint : this.fingerprints.entrySet()) {
+					writer.append(fingerprint.getKey()).append(' ').append(fingerprint.getValue());
+					writer.newLine();
+				}
+			}
+			try {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+	
+	/**
+	 * @return Fingerprints by groupId:artifactId
+	 */
+	public Map<String, String> getFingerprints() {
+		return this.fingerprints;
+	}
+	
+	/**
+	 * @param previous Manifest of an earlier build
+	 * @return Modules of this manifest whose fingerprint differs from or is missing in previous manifest
+	 */
+	public List<String> changedSince(FingerprintManifest previous) {
+		final List<String> changed = new ArrayList<>();
+		for (final Map.Entry<String, String> fingerprint : this.fingerprints.entrySet()) {
+			if (!fingerprint.getValue().equals(previous.fingerprints.get(fingerprint.getKey()))) {
+				changed.add(fingerprint.getKey());
+			}
+		}
+		return changed;
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.reactor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Extension;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Reverse dependency graph of reactor projects. Projects are indexed in reactor order and dependents of each project
+ * are kept in compressed sparse row form, so that downstream projects of any set of projects are found with a breadth
+ * first walk over int arrays and bit sets.
+ * <p>
+ * A project depends on another reactor project through a dependency of any scope, its parent, a build plugin or a
+ * build extension, when groupId, artifactId and version match.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public final class ReactorGraph {
+	
+	private final List<MavenProject> projects;
+	private final Map<String, Integer> indexes;
+	private final int[] offsets;
+	private final int[] dependents;
+	
+	private ReactorGraph(List<MavenProject> projects, Map<String, Integer> indexes, int[] offsets, int[] dependents) {
+		this.projects = projects;
+		this.indexes = indexes;
+		this.offsets = offsets;
+		this.dependents = dependents;
+	}
+	
+	/**
+	 * Builds graph of given projects.
+	 * 
+	 * @param reactor Reactor projects in reactor order
+	 * @return Reverse dependency graph
+	 */
+	public static ReactorGraph of(Collection<MavenProject> reactor) {
+		final List<MavenProject> projects = new ArrayList<>(reactor);
+		final Map<String, Integer> indexes = new HashMap<>(projects.size() * 2);
+		for (int i = 0; i < projects.size(); i++) {
+			indexes.put(coords(projects.get(i).getGroupId(), projects.get(i).getArtifactId()), i);
+		}
+		
+		// Edges as (dependency, dependent) pairs
+		int edgeCount = 0;
+		int[] edges = new int[projects.size() * 4];
+		for (int dependent = 0; dependent < projects.size(); dependent++) {
+			for (final String reference : references(projects.get(dependent))) {
+				final int versionStart = reference.lastIndexOf(':');
+				final Integer dependency = indexes.get(reference.substring(0, versionStart));
+				if (dependency == null || dependency == dependent
+						|| !projects.get(dependency).getVersion().equals(reference.substring(versionStart + 1))) {
+					continue;
+				}
+				if (edgeCount * 2 + 2 > edges.length) {
+					edges = Arrays.copyOf(edges, edges.length * 2);
+				}
+				edges[edgeCount * 2] = dependency;
+				edges[edgeCount * 2 + 1] = dependent;
+				edgeCount++;
+			}
+		}
+		
+		// Counting sort of edges by dependency
+		final int[] offsets = new int[projects.size() + 1];
+		for (int e = 0; e < edgeCount; e++) {
+			offsets[edges[e * 2] + 1]++;
+		}
+		for (int i = 0; i < projects.size(); i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		final int[] next = Arrays.copyOf(offsets, projects.size());
+		final int[] dependents = new int[edgeCount];
+		for (int e = 0; e < edgeCount; e++) {
+			dependents[next[edges[e * 2]]++] = edges[e * 2 + 1];
+		}
+		return new ReactorGraph(projects, indexes, offsets, dependents);
+	}
+	
+	/**
+	 * @return groupId:artifactId:version of every project that given project may depend on
+	 */
+	private static List<String> references(MavenProject project) {
+		final List<String> references = new ArrayList<>();
+		final Parent parent = project.getModel().getParent();
+		if (parent != null) {
+			references.add(coords(parent.getGroupId(), parent.getArtifactId()) + ":" + parent.getVersion());
+		}
+		for (final Dependency dependency : project.getModel().getDependencies()) {
+			references.add(coords(dependency.getGroupId(), dependency.getArtifactId()) + ":" + dependency.getVersion());
+		}
+		final Build build = project.getModel().getBuild();
+		if (build != null) {
+			for (final Plugin plugin : build.getPlugins()) {
+				references.add(coords(plugin.getGroupId(), plugin.getArtifactId()) + ":" + plugin.getVersion());
+			}
+			for (final Extension extension : build.getExtensions()) {
+				references
+					.add(coords(extension.getGroupId(), extension.getArtifactId()) + ":" + extension.getVersion());
+			}
+		}
+		return references;
+	}
+	
+	private static String coords(String groupId, String artifactId) {
+		return groupId + ":" + artifactId;
+	}
+	
+	/**
+	 * @return Number of projects
+	 */
+	public int size() {
+		return this.projects.size();
+	}
+	
+	/**
+	 * @param groupId Group ID
+	 * @param artifactId Artifact ID
+	 * @return Reactor index of project, -1 if it is not in reactor
+	 */
+	public int indexOf(String groupId, String artifactId) {
+		final Integer index = this.indexes.get(coords(groupId, artifactId));
+		return index != null
+				? index
+				: -1;
+	}
+	
+	/**
+	 * @param index Reactor index
+	 * @return Project at given index
+	 */
+	public MavenProject get(int index) {
+		return this.projects.get(index);
+	}
+	
+	/**
+	 * Finds given projects and all projects that depend on them, directly or transitively.
+	 * 
+	 * @param projects Reactor indexes of projects
+	 * @return New bit set of reactor indexes
+	 */
+	public BitSet downstream(BitSet projects) {
+		final BitSet visited = (BitSet) projects.clone();
+		final int[] queue = new int[this.projects.size()];
+		int head = 0;
+		int tail = 0;
+		for (int i = projects.nextSetBit(0); i >= 0; i = projects.nextSetBit(i + 1)) {
+			queue[tail++] = i;
+		}
+		while (head < tail) {
+			final int project = queue[head++];
+			for (int e = this.offsets[project]; e < this.offsets[project + 1]; e++) {
+				final int dependent = this.dependents[e];
+				if (!visited.get(dependent)) {
+					visited.set(dependent);
+					queue[tail++] = dependent;
+				}
+			}
+		}
+		return visited;
+	}
+	
+	/**
+	 * Formats given projects as a project list of Maven command line, in reactor order.
+	 * 
+	 * @param projects Reactor indexes of projects
+	 * @param separator Separator of projects, "," for -pl
+	 * @return groupId:artifactId of projects
+	 */
+	public String toProjectList(BitSet projects, String separator) {
+		final StringBuilder builder = new StringBuilder();
+		for (int i = projects.nextSetBit(0); i >= 0; i = projects.nextSetBit(i + 1)) {
+			if (builder.length() > 0) {
+				builder.append(separator);
+			}
+			builder.append(coords(this.projects.get(i).getGroupId(), this.projects.get(i).getArtifactId()));
+		}
+		return builder.toString();
+	}
+}
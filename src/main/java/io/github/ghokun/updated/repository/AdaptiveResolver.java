@@ -0,0 +1,297 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.repository;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.logging.Log;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResolutionException;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.transfer.MetadataNotFoundException;
+import org.eclipse.aether.transfer.RepositoryOfflineException;
+import org.eclipse.aether.version.Version;
+
+import io.github.ghokun.updated.metrics.Metrics;
+
+/**
+ * Resolves version ranges one remote repository at a time, so that a lookup is not bound to the slowest repository.
+ * Repositories are queried in parallel, fastest first according to {@link RepositoryHealth}. A request that takes
+ * longer than the latency percentile of its repository is duplicated and the first successful answer wins.
+ * Repositories with an open circuit breaker are skipped and reported as offline in results.
+ * <p>
+ * Results are merged in configured repository order, hence a version is attributed to the same repository as in a
+ * single {@link RepositorySystem#resolveVersionRange} call.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class AdaptiveResolver implements Closeable {
+	
+	private final VersionResolver resolver;
+	private final RepositorySystemSession session;
+	private final RepositoryHealth health;
+	private final double hedgePercentile;
+	private final long hedgeDelay;
+	private final Metrics metrics;
+	private final Log log;
+	private final ExecutorService executor;
+	
+	/**
+	 * @param resolver Resolves versions from a single repository
+	 * @param session Repository system session
+	 * @param health Repository statistics, shared across resolvers of a session
+	 * @param hedgePercentile Latency percentile of a repository after which a request is duplicated
+	 * @param hedgeDelay Milliseconds after which a request is duplicated, until a repository has enough samples
+	 * @param metrics Metrics to count hedged and skipped requests
+	 * @param log Maven log
+	 */
+	public AdaptiveResolver(
+			VersionResolver resolver,
+			RepositorySystemSession session,
+			RepositoryHealth health,
+			double hedgePercentile,
+			long hedgeDelay,
+			Metrics metrics,
+			Log log) {
+		this.resolver = resolver;
+		this.session = session;
+		this.health = health;
+		this.hedgePercentile = hedgePercentile;
+		this.hedgeDelay = hedgeDelay;
+		this.metrics = metrics;
+		this.log = log;
+		final AtomicInteger threadCount = new AtomicInteger();
+		this.executor = Executors.newCachedThreadPool(runnable -> {
+			final Thread thread = new Thread(runnable, "updated-repository-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * Same as {@link RepositorySystem#resolveVersionRange(RepositorySystemSession, VersionRangeRequest)}.
+	 * 
+	 * @param request Version range request
+	 * @return Merged result of all repositories
+	 * @throws VersionRangeResolutionException If version range is invalid or thread is interrupted
+	 */
+	public VersionRangeResult resolveVersionRange(VersionRangeRequest request) throws VersionRangeResolutionException {
+		return merge(request, this.resolvePerRepository(request));
+	}
+	
+	/**
+	 * Resolves given request from each of its repositories.
+	 * 
+	 * @param request Version range request
+	 * @return Result of each repository in configured order. Result of a skipped repository has no versions and an
+	 *         offline exception.
+	 * @throws VersionRangeResolutionException If version range is invalid or thread is interrupted
+	 */
+	public List<VersionRangeResult> resolvePerRepository(VersionRangeRequest request)
+			throws VersionRangeResolutionException {
+		final Map<RemoteRepository, Future<VersionRangeResult>> attempts = new LinkedHashMap<>();
+		try {
+			for (final RemoteRepository repository : this.health.order(request.getRepositories())) {
+				if (!this.health.isOpen(repository)) {
+					attempts.put(repository, this.executor.submit(() -> this.resolveHedged(request, repository)));
+				}
+			}
+			final List<VersionRangeResult> results = new ArrayList<>();
+			for (final RemoteRepository repository : request.getRepositories()) {
+				final Future<VersionRangeResult> attempt = attempts.get(repository);
+				if (attempt == null) {
+					this.metrics.increment("skipped requests");
+					final VersionRangeResult skipped = new VersionRangeResult(single(request, repository));
+					skipped
+						.addException(new RepositoryOfflineException(repository,
+							"Skipped after " + repository.getId() + " failed repeatedly"));
+					results.add(skipped);
+					continue;
+				}
+				results.add(attempt.get());
+			}
+			return results;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new VersionRangeResolutionException(new VersionRangeResult(request), "Interrupted", e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof VersionRangeResolutionException) {
+				throw (VersionRangeResolutionException) e.getCause();
+			}
+			throw new VersionRangeResolutionException(new VersionRangeResult(request), e.getCause().getMessage(),
+				e.getCause());
+		} finally {
+			for (final Future<VersionRangeResult> attempt : attempts.values()) {
+				attempt.cancel(false);
+			}
+		}
+	}
+	
+	/**
+	 * @param request Version range request
+	 * @param repository One of the repositories of request
+	 * @return Same request for given repository only
+	 */
+	public static VersionRangeRequest single(VersionRangeRequest request, RemoteRepository repository) {
+		final VersionRangeRequest single = new VersionRangeRequest(request.getArtifact(),
+			Collections.singletonList(repository), request.getRequestContext());
+		single.setTrace(request.getTrace());
+		return single;
+	}
+	
+	/**
+	 * Resolves from a single repository. Sends a duplicate request if the first one misses its deadline, and answers
+	 * with whichever succeeds first. Repository is counted as failed only if every request sent fails.
+	 */
+	private VersionRangeResult resolveHedged(VersionRangeRequest request, RemoteRepository repository)
+			throws VersionRangeResolutionException, InterruptedException {
+		final VersionRangeRequest single = single(request, repository);
+		final CompletionService<VersionRangeResult> completion = new ExecutorCompletionService<>(this.executor);
+		final List<Future<VersionRangeResult>> requests = new ArrayList<>(2);
+		final long start = System.nanoTime();
+		try {
+			requests.add(completion.submit(() -> this.resolver.resolveVersionRange(this.session, single)));
+			Future<VersionRangeResult> done = completion
+				.poll(this.health.deadline(repository, this.hedgePercentile, this.hedgeDelay), TimeUnit.MILLISECONDS);
+			if (done == null) {
+				this.metrics.increment("hedged requests");
+				requests.add(completion.submit(() -> this.resolver.resolveVersionRange(this.session, single)));
+			}
+			
+			// Result with transfer errors, or cause of the last failed request
+			VersionRangeResult failedResult = null;
+			Throwable failure = null;
+			for (int pending = requests.size(); pending > 0; pending--) {
+				if (done == null) {
+					done = completion.take();
+				}
+				try {
+					final VersionRangeResult result = done.get();
+					if (!this.hasTransferErrors(result)) {
+						this.health.succeeded(repository, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+						return result;
+					}
+					failedResult = result;
+				} catch (final ExecutionException e) {
+					if (e.getCause() instanceof VersionRangeResolutionException) {
+						// Invalid range, not a failure of repository
+						throw (VersionRangeResolutionException) e.getCause();
+					}
+					failure = e.getCause();
+				}
+				done = null;
+			}
+			
+			this.failed(repository, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			if (failedResult != null) {
+				return failedResult;
+			}
+			throw new VersionRangeResolutionException(new VersionRangeResult(single), failure.getMessage(), failure);
+		} finally {
+			// Losing request is not interrupted, aether does not expect interrupts while it writes local repository
+			for (final Future<VersionRangeResult> pending : requests) {
+				pending.cancel(false);
+			}
+		}
+	}
+	
+	private void failed(RemoteRepository repository, long millis) {
+		if (this.health.failed(repository, millis)) {
+			this
+				.log
+				.warn("Repository " + repository.getId() + " (" + repository.getUrl()
+						+ ") failed repeatedly and is skipped for the rest of the session.");
+		}
+	}
+	
+	private boolean hasTransferErrors(VersionRangeResult result) {
+		for (final Exception exception : result.getExceptions()) {
+			if (!(exception instanceof MetadataNotFoundException)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Merges single repository results in configured order. First repository that has a version owns it.
+	 * 
+	 * @param request Version range request of all repositories
+	 * @param results Result of each repository, e.g. of {@link #resolvePerRepository(VersionRangeRequest)}
+	 * @return Same result as a single {@link RepositorySystem#resolveVersionRange} call
+	 */
+	public static VersionRangeResult merge(VersionRangeRequest request, List<VersionRangeResult> results) {
+		final VersionRangeResult merged = new VersionRangeResult(request);
+		final Map<Version, ArtifactRepository> versions = new LinkedHashMap<>();
+		for (final VersionRangeResult result : results) {
+			if (merged.getVersionConstraint() == null) {
+				merged.setVersionConstraint(result.getVersionConstraint());
+			}
+			for (final Version version : result.getVersions()) {
+				versions.putIfAbsent(version, result.getRepository(version));
+			}
+			for (final Exception exception : result.getExceptions()) {
+				merged.addException(exception);
+			}
+		}
+		final List<Version> sorted = new ArrayList<>(versions.keySet());
+		Collections.sort(sorted);
+		merged.setVersions(sorted);
+		for (final Map.Entry<Version, ArtifactRepository> version : versions.entrySet()) {
+			merged.setRepository(version.getKey(), version.getValue());
+		}
+		return merged;
+	}
+	
+	/**
+	 * Waits for losing duplicate requests, so that local repository can be cleaned up.
+	 */
+	@Override
+	public void close() {
+		this.executor.shutdown();
+		try {
+			this.executor.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
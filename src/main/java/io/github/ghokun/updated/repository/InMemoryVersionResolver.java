@@ -0,0 +1,213 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.repository;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.RequestTrace;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.metadata.DefaultMetadata;
+import org.eclipse.aether.metadata.Metadata;
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResolutionException;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.spi.connector.transport.GetTask;
+import org.eclipse.aether.spi.connector.transport.Transporter;
+import org.eclipse.aether.spi.connector.transport.TransporterProvider;
+import org.eclipse.aether.transfer.MetadataNotFoundException;
+import org.eclipse.aether.transfer.MetadataTransferException;
+import org.eclipse.aether.transfer.NoTransporterException;
+import org.eclipse.aether.transfer.RepositoryOfflineException;
+import org.eclipse.aether.transfer.TransferCancelledException;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferListener;
+import org.eclipse.aether.transfer.TransferResource;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionConstraint;
+import org.eclipse.aether.version.VersionScheme;
+
+import io.github.ghokun.updated.enumeration.VersionLookup;
+
+/**
+ * Resolves versions from maven-metadata.xml of each repository, downloaded into memory. Unlike
+ * {@link MetadataVersionResolver} and range resolution, nothing is written to local repository, so there is nothing to
+ * clean up afterwards.
+ * <p>
+ * Downloads bypass repository connectors, hence checksums are not validated. Transfers are still reported to the
+ * transfer listener of the session.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class InMemoryVersionResolver implements VersionResolver {
+	
+	private static final String MAVEN_METADATA_XML = "maven-metadata.xml";
+	
+	private final TransporterProvider transporterProvider;
+	private final VersionLookup lookup;
+	private final VersionScheme versionScheme = new GenericVersionScheme();
+	
+	/**
+	 * @param transporterProvider Transporter provider
+	 * @param lookup Whether all versions or only latest and release markers are read. Metadata without markers within
+	 *        requested range is answered from its version list.
+	 */
+	public InMemoryVersionResolver(TransporterProvider transporterProvider, VersionLookup lookup) {
+		this.transporterProvider = transporterProvider;
+		this.lookup = lookup;
+	}
+	
+	@Override
+	public VersionRangeResult resolveVersionRange(RepositorySystemSession session, VersionRangeRequest request)
+			throws VersionRangeResolutionException {
+		final Artifact artifact = request.getArtifact();
+		final VersionRangeResult result = new VersionRangeResult(request);
+		final VersionConstraint constraint;
+		try {
+			constraint = this.versionScheme.parseVersionConstraint(artifact.getVersion());
+		} catch (final InvalidVersionSpecificationException e) {
+			result.addException(e);
+			throw new VersionRangeResolutionException(result);
+		}
+		result.setVersionConstraint(constraint);
+		
+		final Metadata metadata = new DefaultMetadata(artifact.getGroupId(), artifact.getArtifactId(),
+			MAVEN_METADATA_XML, Metadata.Nature.RELEASE_OR_SNAPSHOT);
+		final RequestTrace trace = RequestTrace.newChild(request.getTrace(), request);
+		
+		// First repository in configured order owns a version
+		final Map<Version, ArtifactRepository> versions = new LinkedHashMap<>();
+		for (final RemoteRepository repository : request.getRepositories()) {
+			try {
+				for (final Version version : this.versions(this.download(session, repository, metadata, trace),
+					constraint)) {
+					versions.putIfAbsent(version, repository);
+				}
+			} catch (final MetadataTransferException e) {
+				result.addException(e);
+			} catch (final XMLStreamException e) {
+				result.addException(new MetadataTransferException(metadata, repository, e));
+			}
+		}
+		
+		final List<Version> sorted = new ArrayList<>(versions.keySet());
+		sorted.sort(null);
+		result.setVersions(sorted);
+		for (final Map.Entry<Version, ArtifactRepository> version : versions.entrySet()) {
+			result.setRepository(version.getKey(), version.getValue());
+		}
+		return result;
+	}
+	
+	private List<Version> versions(byte[] data, VersionConstraint constraint) throws XMLStreamException {
+		if (this.lookup == VersionLookup.METADATA) {
+			final List<Version> markers = MavenMetadataReader
+				.parse(MavenMetadataReader.readMarkers(new ByteArrayInputStream(data)), constraint,
+					this.versionScheme);
+			if (!markers.isEmpty()) {
+				return Collections.singletonList(Collections.max(markers));
+			}
+		}
+		return MavenMetadataReader
+			.parse(MavenMetadataReader.readVersions(new ByteArrayInputStream(data)), constraint, this.versionScheme);
+	}
+	
+	/**
+	 * Downloads given metadata into memory and reports transfer to the listener of given session.
+	 */
+	private byte[] download(
+			RepositorySystemSession session,
+			RemoteRepository repository,
+			Metadata metadata,
+			RequestTrace trace) throws MetadataTransferException {
+		if (session.isOffline()) {
+			throw new MetadataTransferException(metadata, repository, new RepositoryOfflineException(repository));
+		}
+		final String path = metadata.getGroupId().replace('.', '/') + '/' + metadata.getArtifactId() + '/'
+				+ metadata.getType();
+		final TransferResource resource = new TransferResource(repository.getId(), repository.getUrl(), path, null,
+			trace);
+		final TransferListener listener = session.getTransferListener();
+		this.fire(listener, new TransferEvent.Builder(session, resource).setType(TransferEvent.EventType.INITIATED));
+		final GetTask task = new GetTask(URI.create(path));
+		try (final Transporter transporter = this.transporterProvider.newTransporter(session, repository)) {
+			try {
+				transporter.get(task);
+			} catch (final Exception e) {
+				this
+					.fire(listener,
+						new TransferEvent.Builder(session, resource)
+							.setType(TransferEvent.EventType.FAILED)
+							.setException(e));
+				if (transporter.classify(e) == Transporter.ERROR_NOT_FOUND) {
+					throw new MetadataNotFoundException(metadata, repository);
+				}
+				throw new MetadataTransferException(metadata, repository, e);
+			}
+		} catch (final NoTransporterException e) {
+			throw new MetadataTransferException(metadata, repository, e);
+		}
+		final byte[] data = task.getDataBytes();
+		this
+			.fire(listener,
+				new TransferEvent.Builder(session, resource)
+					.setType(TransferEvent.EventType.SUCCEEDED)
+					.setTransferredBytes(data.length));
+		return data;
+	}
+	
+	private void fire(TransferListener listener, TransferEvent.Builder builder) {
+		if (listener == null) {
+			return;
+		}
+		final TransferEvent event = builder.build();
+		try {
+			switch (event.getType()) {
+				case INITIATED:
+					listener.transferInitiated(event);
+					break;
+				case SUCCEEDED:
+					listener.transferSucceeded(event);
+					break;
+				default:
+					listener.transferFailed(event);
+			}
+		} catch (final TransferCancelledException e) {
+			// Listeners of this plugin never cancel, downloads are small anyway
+		}
+	}
+}
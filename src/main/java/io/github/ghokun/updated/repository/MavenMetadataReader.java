@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.repository;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionConstraint;
+import org.eclipse.aether.version.VersionScheme;
+
+/**
+ * Streaming reader of artifact level maven-metadata.xml. Only {@code metadata/versioning} is read, other elements are
+ * skipped without reading their text.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+final class MavenMetadataReader {
+	
+	private static final XMLInputFactory XML_INPUT_FACTORY = newXmlInputFactory();
+	
+	/**
+	 * Do not create instances for this.
+	 */
+	private MavenMetadataReader() {
+	}
+	
+	private static XMLInputFactory newXmlInputFactory() {
+		final XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	}
+	
+	/**
+	 * Reads {@code latest} and {@code release}, skipping the version list.
+	 *
+	 * @param input Metadata, not closed
+	 * @return Latest and release, skipping missing or blank ones
+	 * @throws XMLStreamException If metadata is malformed
+	 */
+	static List<String> readMarkers(InputStream input) throws XMLStreamException {
+		return read(input, false);
+	}
+	
+	/**
+	 * Reads {@code versions/version}.
+	 *
+	 * @param input Metadata, not closed
+	 * @return Published versions, skipping blank ones
+	 * @throws XMLStreamException If metadata is malformed
+	 */
+	static List<String> readVersions(InputStream input) throws XMLStreamException {
+		return read(input, true);
+	}
+	
+	/**
+	 * Parses given values and keeps the ones within constraint. Invalid values are ignored.
+	 *
+	 * @param values Version strings
+	 * @param constraint Version constraint
+	 * @param scheme Version scheme
+	 * @return Versions within constraint, in given order
+	 */
+	static List<Version> parse(List<String> values, VersionConstraint constraint, VersionScheme scheme) {
+		final List<Version> versions = new ArrayList<>(values.size());
+		for (final String value : values) {
+			try {
+				final Version version = scheme.parseVersion(value);
+				if (constraint.containsVersion(version)) {
+					versions.add(version);
+				}
+			} catch (final InvalidVersionSpecificationException e) {
+				// Ignore invalid version, range resolution ignores it too
+			}
+		}
+		return versions;
+	}
+	
+	private static List<String> read(InputStream input, boolean versions) throws XMLStreamException {
+		final List<String> values = new ArrayList<>();
+		final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(input);
+		try {
+			reader.nextTag(); // metadata
+			while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+				if (!"versioning".equals(reader.getLocalName())) {
+					skipElement(reader);
+					continue;
+				}
+				while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+					final String name = reader.getLocalName();
+					if (!versions && ("latest".equals(name) || "release".equals(name))) {
+						add(values, reader.getElementText());
+					} else if (versions && "versions".equals(name)) {
+						while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+							add(values, reader.getElementText());
+						}
+					} else {
+						skipElement(reader);
+					}
+				}
+				break;
+			}
+		} finally {
+			reader.close();
+		}
+		return values;
+	}
+	
+	private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0) {
+			final int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+	
+	private static void add(List<String> values, String value) {
+		final String trimmed = value.trim();
+		if (!trimmed.isEmpty()) {
+			values.add(trimmed);
+		}
+	}
+}
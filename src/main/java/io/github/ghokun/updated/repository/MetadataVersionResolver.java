@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.RequestTrace;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.metadata.DefaultMetadata;
+import org.eclipse.aether.metadata.Metadata;
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.MetadataRequest;
+import org.eclipse.aether.resolution.MetadataResult;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResolutionException;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionConstraint;
+import org.eclipse.aether.version.VersionScheme;
+
+import io.github.ghokun.updated.metrics.Metrics;
+
+/**
+ * Resolves the latest version of an artifact from the {@code <latest>} and {@code <release>} markers of each
+ * repository's maven-metadata.xml, instead of parsing and sorting every published version. Metadata is read with
+ * {@link MavenMetadataReader#readMarkers}, which skips the version list.
+ * <p>
+ * Result has at most one version per repository, the higher of both markers. Markers are maintained by deployment, so
+ * a repository whose metadata was merged by hand may report a lower version than range resolution. A repository
+ * without metadata has no versions, same as in range resolution. A repository whose metadata has no markers, or only
+ * markers out of requested range, is resolved by range instead, and its versions are merged in configured order.
+ * <p>
+ * {@code lastUpdated} is not read. It tells when metadata was written, not which version is highest, and how often
+ * metadata is downloaded is already governed by update policy of the repository and by {@link VersionCache}.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class MetadataVersionResolver implements VersionResolver {
+	
+	private static final String MAVEN_METADATA_XML = "maven-metadata.xml";
+	
+	private final RepositorySystem system;
+	private final Metrics metrics;
+	private final VersionScheme versionScheme = new GenericVersionScheme();
+	
+	/**
+	 * @param system Repository system, also used for range resolution when metadata is not sufficient
+	 * @param metrics Metrics to count fallbacks to range resolution
+	 */
+	public MetadataVersionResolver(RepositorySystem system, Metrics metrics) {
+		this.system = system;
+		this.metrics = metrics;
+	}
+	
+	@Override
+	public VersionRangeResult resolveVersionRange(RepositorySystemSession session, VersionRangeRequest request)
+			throws VersionRangeResolutionException {
+		final Artifact artifact = request.getArtifact();
+		final VersionRangeResult result = new VersionRangeResult(request);
+		final VersionConstraint constraint;
+		try {
+			constraint = this.versionScheme.parseVersionConstraint(artifact.getVersion());
+		} catch (final InvalidVersionSpecificationException e) {
+			result.addException(e);
+			throw new VersionRangeResolutionException(result);
+		}
+		result.setVersionConstraint(constraint);
+		
+		final RequestTrace trace = RequestTrace.newChild(request.getTrace(), request);
+		final List<MetadataRequest> metadataRequests = new ArrayList<>(request.getRepositories().size());
+		for (final RemoteRepository repository : request.getRepositories()) {
+			metadataRequests
+				.add(new MetadataRequest(
+					new DefaultMetadata(artifact.getGroupId(), artifact.getArtifactId(), MAVEN_METADATA_XML,
+						Metadata.Nature.RELEASE_OR_SNAPSHOT),
+					repository, request.getRequestContext()).setTrace(trace));
+		}
+		
+		// Highest marker of each repository with usable markers, others are resolved by range
+		final Map<RemoteRepository, Version> highest = new LinkedHashMap<>();
+		final List<RemoteRepository> fallbacks = new ArrayList<>();
+		for (final MetadataResult metadataResult : this.system.resolveMetadata(session, metadataRequests)) {
+			if (metadataResult.getException() != null) {
+				result.addException(metadataResult.getException());
+			}
+			if (!metadataResult.isResolved()) {
+				continue;
+			}
+			final RemoteRepository repository = metadataResult.getRequest().getRepository();
+			final Version version = this.highest(metadataResult.getMetadata().getFile(), constraint);
+			if (version != null) {
+				highest.put(repository, version);
+			} else {
+				fallbacks.add(repository);
+			}
+		}
+		VersionRangeResult ranges = null;
+		if (!fallbacks.isEmpty()) {
+			this.metrics.increment("metadata fallbacks");
+			final VersionRangeRequest fallbackRequest = new VersionRangeRequest(artifact, fallbacks,
+				request.getRequestContext());
+			fallbackRequest.setTrace(request.getTrace());
+			ranges = this.system.resolveVersionRange(session, fallbackRequest);
+			for (final Exception exception : ranges.getExceptions()) {
+				result.addException(exception);
+			}
+		}
+		
+		// First repository in configured order owns a version
+		final Map<Version, ArtifactRepository> versions = new LinkedHashMap<>();
+		for (final RemoteRepository repository : request.getRepositories()) {
+			if (highest.containsKey(repository)) {
+				versions.putIfAbsent(highest.get(repository), repository);
+			} else if (ranges != null) {
+				for (final Version version : ranges.getVersions()) {
+					final ArtifactRepository source = ranges.getRepository(version);
+					if (source != null && repository.getId().equals(source.getId())) {
+						versions.putIfAbsent(version, repository);
+					}
+				}
+			}
+		}
+		
+		final List<Version> sorted = new ArrayList<>(versions.keySet());
+		sorted.sort(null);
+		result.setVersions(sorted);
+		for (final Map.Entry<Version, ArtifactRepository> version : versions.entrySet()) {
+			result.setRepository(version.getKey(), version.getValue());
+		}
+		return result;
+	}
+	
+	/**
+	 * @return Higher of latest and release markers, or null if there are none within constraint
+	 */
+	private Version highest(File file, VersionConstraint constraint) {
+		final List<String> markers;
+		try (final InputStream input = Files.newInputStream(file.toPath())) {
+			markers = MavenMetadataReader.readMarkers(input);
+		} catch (final IOException | XMLStreamException e) {
+			return null;
+		}
+		final List<Version> versions = MavenMetadataReader.parse(markers, constraint, this.versionScheme);
+		return versions.isEmpty() ? null : Collections.max(versions);
+	}
+}
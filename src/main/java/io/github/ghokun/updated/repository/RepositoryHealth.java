@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.aether.repository.RemoteRepository;
+
+/**
+ * Running latency and error statistics of remote repositories, shared by all lookups of a session. A repository that
+ * fails a number of times in a row trips its circuit breaker and stays skipped. Thread-safe.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class RepositoryHealth {
+	
+	/**
+	 * Number of latest latencies kept per repository.
+	 */
+	private static final int WINDOW = 64;
+	
+	/**
+	 * Minimum number of latencies before percentiles are trusted.
+	 */
+	private static final int MIN_SAMPLES = 8;
+	
+	private final int failureThreshold;
+	private final ConcurrentMap<String, Stats> stats = new ConcurrentHashMap<>();
+	
+	/**
+	 * @param failureThreshold Consecutive failures after which a repository is skipped, 0 to never skip
+	 */
+	public RepositoryHealth(int failureThreshold) {
+		this.failureThreshold = failureThreshold;
+	}
+	
+	private Stats of(RemoteRepository repository) {
+		return this.stats.computeIfAbsent(repository.getId() + "|" + repository.getUrl(), key -> new Stats());
+	}
+	
+	/**
+	 * Orders given repositories by mean latency. Repositories without samples keep their order and come first, so that
+	 * they are measured.
+	 * 
+	 * @param repositories Repositories in configured order
+	 * @return New list, fastest first
+	 */
+	public List<RemoteRepository> order(List<RemoteRepository> repositories) {
+		final List<RemoteRepository> ordered = new ArrayList<>(repositories);
+		ordered.sort(Comparator.comparingDouble(repository -> this.of(repository).mean()));
+		return ordered;
+	}
+	
+	/**
+	 * @param repository Remote repository
+	 * @return True if circuit breaker of repository is open, i.e. it should not be queried anymore
+	 */
+	public boolean isOpen(RemoteRepository repository) {
+		return this.of(repository).open;
+	}
+	
+	/**
+	 * Time after which a duplicate request is sent to given repository.
+	 * 
+	 * @param repository Remote repository
+	 * @param percentile Latency percentile between 0 and 100
+	 * @param defaultMillis Used until repository has enough samples
+	 * @return Deadline in milliseconds
+	 */
+	public long deadline(RemoteRepository repository, double percentile, long defaultMillis) {
+		final long deadline = this.of(repository).percentile(percentile);
+		return deadline < 0
+				? defaultMillis
+				: Math.max(1, deadline);
+	}
+	
+	/**
+	 * @param repository Remote repository
+	 * @param millis Latency of successful request
+	 */
+	public void succeeded(RemoteRepository repository, long millis) {
+		this.of(repository).record(millis, false, this.failureThreshold);
+	}
+	
+	/**
+	 * @param repository Remote repository
+	 * @param millis Latency of failed request
+	 * @return True if this failure opened circuit breaker of repository
+	 */
+	public boolean failed(RemoteRepository repository, long millis) {
+		return this.of(repository).record(millis, true, this.failureThreshold);
+	}
+	
+	private static final class Stats {
+		
+		private final long[] latencies = new long[WINDOW];
+		private int samples;
+		private long total;
+		private int consecutiveFailures;
+		private volatile boolean open;
+		
+		private synchronized boolean record(long millis, boolean failure, int failureThreshold) {
+			final int slot = this.samples % WINDOW;
+			if (this.samples >= WINDOW) {
+				this.total -= this.latencies[slot];
+			}
+			this.latencies[slot] = millis;
+			this.total += millis;
+			this.samples++;
+			if (!failure) {
+				this.consecutiveFailures = 0;
+				return false;
+			}
+			this.consecutiveFailures++;
+			if (!this.open && failureThreshold > 0 && this.consecutiveFailures >= failureThreshold) {
+				this.open = true;
+				return true;
+			}
+			return false;
+		}
+		
+		private synchronized double mean() {
+			return this.samples == 0
+					? 0
+					: this.total / (double) Math.min(this.samples, WINDOW);
+		}
+		
+		private synchronized long percentile(double percentile) {
+			if (this.samples < MIN_SAMPLES) {
+				return -1;
+			}
+			final long[] sorted = Arrays.copyOf(this.latencies, Math.min(this.samples, WINDOW));
+			Arrays.sort(sorted);
+			final int rank = (int) Math.ceil(sorted.length * percentile / 100) - 1;
+			return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+		}
+	}
+}
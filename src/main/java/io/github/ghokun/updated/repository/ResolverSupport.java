@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.repository;
+
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.eclipse.aether.DefaultRepositoryCache;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.DefaultSessionData;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+import org.eclipse.aether.connector.basic.BasicRepositoryConnectorFactory;
+import org.eclipse.aether.impl.DefaultServiceLocator;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
+import org.eclipse.aether.spi.connector.transport.TransporterFactory;
+import org.eclipse.aether.spi.connector.transport.TransporterProvider;
+import org.eclipse.aether.transport.file.FileTransporterFactory;
+import org.eclipse.aether.transport.http.HttpTransporterFactory;
+
+/**
+ * Resolver components of the plugin and their scopes.
+ *
+ * <pre>
+ * Repository system : One per JVM. Stateless, shared by all builds. Same for transporter provider.
+ * Session data      : One per JVM. Holds HTTP connection pools, so that they stay warm across builds of a daemon.
+ * Session           : One per build and local repository, kept in data of the build's repository session. Holds
+ *                     caches that must not outlive a build.
+ * </pre>
+ *
+ * All methods are thread-safe.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public final class ResolverSupport {
+	
+	private static final SessionData SHARED_DATA = new DefaultSessionData();
+	
+	/**
+	 * Do not create instances for this.
+	 */
+	private ResolverSupport() {
+	}
+	
+	/**
+	 * Initialized on first use by class loading, which is thread-safe.
+	 */
+	private static final class ServiceHolder {
+		
+		private static final DefaultServiceLocator LOCATOR = newServiceLocator();
+		private static final RepositorySystem REPOSITORY_SYSTEM = LOCATOR.getService(RepositorySystem.class);
+		private static final TransporterProvider TRANSPORTER_PROVIDER = LOCATOR.getService(TransporterProvider.class);
+		
+		private static DefaultServiceLocator newServiceLocator() {
+			final DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
+			locator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
+			locator.addService(TransporterFactory.class, FileTransporterFactory.class);
+			locator.addService(TransporterFactory.class, HttpTransporterFactory.class);
+			return locator;
+		}
+	}
+	
+	/**
+	 * @return Repository system of the plugin
+	 */
+	public static RepositorySystem repositorySystem() {
+		return ServiceHolder.REPOSITORY_SYSTEM;
+	}
+	
+	/**
+	 * @return Transporter provider of {@link #repositorySystem()}, for downloads that bypass local repository
+	 */
+	public static TransporterProvider transporterProvider() {
+		return ServiceHolder.TRANSPORTER_PROVIDER;
+	}
+	
+	/**
+	 * Gets read only session of given build and local repository, creating it on first call.
+	 * 
+	 * @param build Repository session of the Maven build
+	 * @param localRepository Local repository directory
+	 * @return Session of the plugin
+	 */
+	public static RepositorySystemSession session(RepositorySystemSession build, String localRepository) {
+		return buildScoped(build, key("session", localRepository), () -> {
+			final DefaultRepositorySystemSession session = MavenRepositorySystemUtils.newSession();
+			session
+				.setLocalRepositoryManager(repositorySystem()
+					.newLocalRepositoryManager(session, new LocalRepository(localRepository)));
+			session.setData(SHARED_DATA);
+			session.setCache(new DefaultRepositoryCache());
+			session.setReadOnly();
+			return session;
+		});
+	}
+	
+	/**
+	 * Registers a user of given local repository, so that it is not deleted while another execution of the build
+	 * resolves into it.
+	 * 
+	 * @param build Repository session of the Maven build
+	 * @param localRepository Local repository directory
+	 */
+	public static void retain(RepositorySystemSession build, String localRepository) {
+		buildScoped(build, key("users", localRepository), AtomicInteger::new).incrementAndGet();
+	}
+	
+	/**
+	 * Unregisters a user of given local repository.
+	 * 
+	 * @param build Repository session of the Maven build
+	 * @param localRepository Local repository directory
+	 * @return True if there are no other users left, so the repository can be deleted
+	 */
+	public static boolean release(RepositorySystemSession build, String localRepository) {
+		return buildScoped(build, key("users", localRepository), AtomicInteger::new).decrementAndGet() <= 0;
+	}
+	
+	/**
+	 * @param build Repository session of the Maven build
+	 * @param localRepository Local repository directory
+	 * @return True if any execution of the build uses given local repository
+	 */
+	public static boolean inUse(RepositorySystemSession build, String localRepository) {
+		return buildScoped(build, key("users", localRepository), AtomicInteger::new).get() > 0;
+	}
+	
+	private static String key(String name, String localRepository) {
+		return ResolverSupport.class.getName() + "." + name + ":"
+				+ Paths.get(localRepository).toAbsolutePath().normalize();
+	}
+	
+	/**
+	 * Gets a value that lives as long as given build, creating it on first call. Concurrent callers get the same
+	 * value.
+	 * 
+	 * @param <T> Type of value
+	 * @param build Repository session of the Maven build
+	 * @param key Key of value
+	 * @param factory Creates value, may be called more than once under contention
+	 * @return Value of the build
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T buildScoped(RepositorySystemSession build, Object key, Supplier<T> factory) {
+		final SessionData data = build.getData();
+		Object value = data.get(key);
+		if (value == null) {
+			data.set(key, null, factory.get());
+			value = data.get(key);
+		}
+		return (T) value;
+	}
+}
@@ -0,0 +1,243 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.repository;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.transfer.MetadataNotFoundException;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionConstraint;
+import org.eclipse.aether.version.VersionScheme;
+
+/**
+ * Persistent cache of published versions. Each groupId:artifactId is stored in its own small text file with one line
+ * per remote repository:
+ *
+ * <pre>
+ * repositoryId	repositoryUrl	fetchedAtMillis	version1,version2,...
+ * </pre>
+ *
+ * A lookup is answered from cache only if every requested repository has a fresh entry.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public final class VersionCache {
+	
+	private static final String FILE_EXTENSION = ".versions";
+	private static final char FIELD_SEPARATOR = '\t';
+	private static final char VERSION_SEPARATOR = ',';
+	
+	private final Path directory;
+	private final long ttlMillis;
+	private final VersionScheme versionScheme = new GenericVersionScheme();
+	
+	/**
+	 * Creates cache.
+	 *
+	 * @param directory Cache directory, created on first write
+	 * @param ttlMillis Time to live of entries in milliseconds
+	 */
+	public VersionCache(Path directory, long ttlMillis) {
+		this.directory = directory;
+		this.ttlMillis = ttlMillis;
+	}
+	
+	/**
+	 * Answers given request from cache.
+	 *
+	 * @param request Version range request
+	 * @return Cached result or null if any of the requested repositories is missing or expired
+	 * @throws IOException If cache file could not be read
+	 */
+	public VersionRangeResult get(VersionRangeRequest request) throws IOException {
+		final Map<String, Entry> entries = this.read(this.fileOf(request.getArtifact()));
+		if (entries.isEmpty()) {
+			return null;
+		}
+		final long now = System.currentTimeMillis();
+		try {
+			final VersionConstraint constraint = this.versionScheme
+				.parseVersionConstraint(request.getArtifact().getVersion());
+			final Map<Version, RemoteRepository> versions = new TreeMap<>();
+			for (final RemoteRepository repository : request.getRepositories()) {
+				final Entry entry = entries.get(repository.getId());
+				if (entry == null || !entry.url.equals(repository.getUrl())
+						|| now - entry.fetchedAtMillis >= this.ttlMillis) {
+					return null;
+				}
+				for (final String value : entry.versions) {
+					final Version version = this.versionScheme.parseVersion(value);
+					if (constraint.containsVersion(version)) {
+						versions.putIfAbsent(version, repository);
+					}
+				}
+			}
+			final VersionRangeResult result = new VersionRangeResult(request);
+			result.setVersionConstraint(constraint);
+			for (final Map.Entry<Version, RemoteRepository> version : versions.entrySet()) {
+				result.addVersion(version.getKey());
+				result.setRepository(version.getKey(), version.getValue());
+			}
+			return result;
+		} catch (final InvalidVersionSpecificationException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Stores versions of a lookup, one result per repository as returned by
+	 * {@link AdaptiveResolver#resolvePerRepository}, so that a version published to several repositories is recorded
+	 * for each of them. Results with transfer errors are not stored, since a failing repository would be cached as
+	 * having no versions. Missing metadata is a valid answer and is stored.
+	 *
+	 * @param results Version range results of a single artifact, each of a single repository
+	 * @throws IOException If cache file could not be written
+	 */
+	public void put(List<VersionRangeResult> results) throws IOException {
+		if (results.isEmpty()) {
+			return;
+		}
+		final Path file = this.fileOf(results.get(0).getRequest().getArtifact());
+		final Map<String, Entry> entries = this.read(file);
+		final long now = System.currentTimeMillis();
+		boolean changed = false;
+		for (final VersionRangeResult result : results) {
+			if (this.hasTransferErrors(result)) {
+				continue;
+			}
+			for (final RemoteRepository repository : result.getRequest().getRepositories()) {
+				final List<String> versions = new ArrayList<>();
+				for (final Version version : result.getVersions()) {
+					final ArtifactRepository source = result.getRepository(version);
+					if (source != null && repository.getId().equals(source.getId())) {
+						versions.add(version.toString());
+					}
+				}
+				entries.put(repository.getId(), new Entry(repository.getUrl(), now, versions));
+				changed = true;
+			}
+		}
+		if (changed) {
+			this.write(file, entries);
+		}
+	}
+	
+	private boolean hasTransferErrors(VersionRangeResult result) {
+		for (final Exception exception : result.getExceptions()) {
+			if (!(exception instanceof MetadataNotFoundException)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private Path fileOf(Artifact artifact) {
+		return this.directory.resolve(artifact.getGroupId()).resolve(artifact.getArtifactId() + FILE_EXTENSION);
+	}
+	
+	private Map<String, Entry> read(Path file) throws IOException {
+		final Map<String, Entry> entries = new LinkedHashMap<>();
+		if (!Files.isRegularFile(file)) {
+			return entries;
+		}
+		try (final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final String[] fields = line.split(String.valueOf(FIELD_SEPARATOR), -1);
+				if (fields.length != 4) {
+					continue; // Ignore corrupt lines, they will be overwritten
+				}
+				final List<String> versions = new ArrayList<>();
+				for (final String version : fields[3].split(String.valueOf(VERSION_SEPARATOR))) {
+					if (!version.isEmpty()) {
+						versions.add(version);
+					}
+				}
+				try {
+					entries.put(fields[0], new Entry(fields[1], Long.parseLong(fields[2]), versions));
+				} catch (final NumberFormatException e) {
+					// Ignore corrupt lines, they will be overwritten
+				}
+			}
+		}
+		return entries;
+	}
+	
+	private void write(Path file, Map<String, Entry> entries) throws IOException {
+		Files.createDirectories(file.getParent());
+		final Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+		try {
+			try (final BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+				for (final Map.Entry<String, Entry> entry : entries.entrySet()) {
+					writer.append(entry.getKey()).append(FIELD_SEPARATOR);
+					writer.append(entry.getValue().url).append(FIELD_SEPARATOR);
+					writer.append(Long.toString(entry.getValue().fetchedAtMillis)).append(FIELD_SEPARATOR);
+					writer.append(String.join(String.valueOf(VERSION_SEPARATOR), entry.getValue().versions));
+					writer.newLine();
+				}
+			}
+			try {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+	
+	private static final class Entry {
+		
+		private final String url;
+		private final long fetchedAtMillis;
+		private final List<String> versions;
+		
+		private Entry(String url, long fetchedAtMillis, List<String> versions) {
+			this.url = url;
+			this.fetchedAtMillis = fetchedAtMillis;
+			this.versions = versions;
+		}
+	}
+}
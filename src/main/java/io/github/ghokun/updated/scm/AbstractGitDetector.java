@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.scm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Set;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+
+import io.github.ghokun.updated.enumeration.ChangeScope;
+import io.github.ghokun.updated.metrics.Metrics;
+
+/**
+ * Change detection steps shared by git detectors: module tree, change cache and timings. Subclasses only decide how
+ * the remote branch is fetched, how compared trees are resolved and where diffs are read from, so that both
+ * detectors attribute and cache changes the same way.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ * @param <R> Repository access of one detection
+ */
+abstract class AbstractGitDetector<R extends Closeable> implements SourceCodeChangeDetector {
+	
+	static final String REMOTE = "origin";
+	static final String REMOTE_REFS = Constants.R_REMOTES + REMOTE + "/";
+	
+	@Override
+	public SourceCodeChanges detectChanges(
+			MavenProject project,
+			Set<MavenProject> projects,
+			Log log,
+			ChangeDetectionRequest request) throws MojoExecutionException {
+		final Metrics metrics = request.getMetrics();
+		final long openStart = System.nanoTime();
+		try (final R repository = this.open(project)) {
+			metrics.record("scm.open", System.nanoTime() - openStart);
+			
+			// Fetch latest
+			final Metrics.Timer fetchTimer = metrics.start("scm.fetch");
+			try {
+				this.fetch(repository, request, log);
+			} finally {
+				fetchTimer.stop();
+			}
+			
+			final Trees trees;
+			final Metrics.Timer resolveTimer = metrics.start("scm.resolve");
+			try {
+				trees = this.resolve(repository, request, log);
+			} finally {
+				resolveTimer.stop();
+			}
+			
+			// Reuse changes of same trees
+			final SourceCodeChanges moduleTree;
+			final ModuleIndex moduleIndex;
+			final Metrics.Timer modulesTimer = metrics.start("scm.modules");
+			try {
+				moduleTree = GitDetector.generateTree(project, projects);
+				moduleIndex = new ModuleIndex(moduleTree);
+				for (final SourceCodeChanges module : moduleTree) {
+					module.setMaxDiffDetails(request.getMaxChangeDetails());
+				}
+			} finally {
+				modulesTimer.stop();
+			}
+			// Index and working tree have no tree id to cache by
+			final ChangeCache cache = request.getCacheDirectory() != null
+					&& request.getChangeScope() == ChangeScope.COMMITTED
+							? new ChangeCache(request.getCacheDirectory())
+							: null;
+			if (cache != null) {
+				final Metrics.Timer cacheTimer = metrics.start("scm.cache");
+				try {
+					if (cache
+						.read(trees.local,
+							trees.remote,
+							request.isFirstChangeOnly(),
+							request.getMaxChangeDetails(),
+							moduleTree)) {
+						log.info("Changes       : reused from " + request.getCacheDirectory());
+						return moduleTree;
+					}
+				} catch (final IOException e) {
+					log.warn("Could not read change cache in " + request.getCacheDirectory(), e);
+				} finally {
+					cacheTimer.stop();
+				}
+			}
+			
+			// Diff
+			final Metrics.Timer diffTimer = metrics.start("scm.diff");
+			try {
+				this.diff(repository, trees, moduleIndex, request);
+			} finally {
+				diffTimer.stop();
+			}
+			
+			if (cache != null) {
+				final Metrics.Timer cacheTimer = metrics.start("scm.cache");
+				try {
+					cache
+						.write(trees.local,
+							trees.remote,
+							request.isFirstChangeOnly(),
+							request.getMaxChangeDetails(),
+							moduleTree);
+				} catch (final IOException e) {
+					log.warn("Could not write change cache in " + request.getCacheDirectory(), e);
+				} finally {
+					cacheTimer.stop();
+				}
+			}
+			return moduleTree;
+			
+		} catch (final IOException | IllegalArgumentException e) {
+			throw new MojoExecutionException("An error occurred while detecting source code changes", e);
+		}
+	}
+	
+	/**
+	 * Remote-tracking ref to compare with does not exist, e.g. it was never fetched or fetch failed.
+	 */
+	static MojoExecutionException missingRemoteBranch(String remoteBranch) {
+		return new MojoExecutionException("Remote branch " + remoteBranch + " not found, " + REMOTE_REFS + remoteBranch
+				+ " does not exist. Fetch it or set remoteBranch to an existing branch.");
+	}
+	
+	/**
+	 * @param project Root module
+	 * @return Repository access, closed when detection ends
+	 * @throws IOException If repository cannot be opened
+	 */
+	abstract R open(MavenProject project) throws IOException;
+	
+	/**
+	 * Fetches only the remote branch to compare with, without tags. Skipped when the remote-tracking ref was fetched
+	 * within fetch interval. A failed fetch is not fatal, changes are then detected against the last fetched state.
+	 */
+	abstract void fetch(R repository, ChangeDetectionRequest request, Log log) throws IOException;
+	
+	/**
+	 * Resolves and logs local and remote trees to compare.
+	 *
+	 * @throws MojoExecutionException If local branch has no commits or remote branch does not exist
+	 */
+	abstract Trees resolve(R repository, ChangeDetectionRequest request, Log log)
+			throws IOException, MojoExecutionException;
+	
+	/**
+	 * Attributes diffs between compared trees, or between remote tree and index or working tree as requested, to
+	 * modules of given index.
+	 */
+	abstract void diff(R repository, Trees trees, ModuleIndex moduleIndex, ChangeDetectionRequest request)
+			throws IOException;
+	
+	/**
+	 * Local and remote trees to compare. Local tree is HEAD, also for index and working tree scopes.
+	 */
+	static final class Trees {
+		
+		final ObjectId local;
+		final ObjectId remote;
+		
+		Trees(ObjectId local, ObjectId remote) {
+			this.local = local;
+			this.remote = remote;
+		}
+	}
+}
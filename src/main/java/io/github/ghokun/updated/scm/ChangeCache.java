@@ -0,0 +1,242 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.scm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+
+/**
+ * File cache of detected changes. An entry is keyed by local and remote tree ids, a hash of the reactor layout and
+ * detection mode, so it never goes stale: same trees and same modules always produce the same changes.
+ *
+ * <pre>
+ * int    magic
+ * int    maximum number of diff details per module
+ * int    number of changed modules
+ * repeat
+ *   UTF  groupId:artifactId
+ *   int  number of diffs, repeated for each DiffType
+ *   int  number of diff details
+ *   repeat
+ *     byte DiffType ordinal
+ *     UTF  old path
+ *     UTF  new path
+ * </pre>
+ *
+ * An entry answers requests for at most as many details as it was written with.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+final class ChangeCache {
+	
+	private static final int MAGIC = 0x55504432; // UPD2
+	private static final String FILE_EXTENSION = ".changes";
+	
+	private final Path directory;
+	
+	ChangeCache(Path directory) {
+		this.directory = directory;
+	}
+	
+	/**
+	 * Fills given module tree from cache. A full detection result also answers a first change only detection.
+	 *
+	 * @return True if an entry was found and applied, false if module tree is left untouched
+	 * @throws IOException If an entry exists but could not be read
+	 */
+	boolean read(
+			AnyObjectId localTree,
+			AnyObjectId remoteTree,
+			boolean firstChangeOnly,
+			int maxDetails,
+			SourceCodeChanges moduleTree) throws IOException {
+		final String layout = layoutHash(moduleTree);
+		if (firstChangeOnly
+				&& this.read(this.fileOf(localTree, remoteTree, layout, true), maxDetails, moduleTree)) {
+			return true;
+		}
+		return this.read(this.fileOf(localTree, remoteTree, layout, false), maxDetails, moduleTree);
+	}
+	
+	/**
+	 * Stores detected changes of given module tree.
+	 *
+	 * @throws IOException If entry could not be written
+	 */
+	void write(
+			AnyObjectId localTree,
+			AnyObjectId remoteTree,
+			boolean firstChangeOnly,
+			int maxDetails,
+			SourceCodeChanges moduleTree) throws IOException {
+		final Path file = this.fileOf(localTree, remoteTree, layoutHash(moduleTree), firstChangeOnly);
+		Files.createDirectories(this.directory);
+		final Path temp = Files.createTempFile(this.directory, file.getFileName().toString(), ".tmp");
+		try {
+			try (final DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(maxDetails);
+				final List<SourceCodeChanges> changedModules = new ArrayList<>();
+				for (final SourceCodeChanges module : moduleTree) {
+					if (module.hasDiff()) {
+						changedModules.add(module);
+					}
+				}
+				out.writeInt(changedModules.size());
+				for (final SourceCodeChanges module : changedModules) {
+					out.writeUTF(module.getCoords());
+					for (final DiffType type : DiffType.values()) {
+						out.writeInt(module.diffCount(type));
+					}
+					final List<SourceCodeDiff> diffs = module.getDiffDetails();
+					out.writeInt(diffs.size());
+					for (final SourceCodeDiff diff : diffs) {
+						out.writeByte(diff.getType().ordinal());
+						out.writeUTF(diff.getOldPath());
+						out.writeUTF(diff.getNewPath());
+					}
+				}
+			}
+			try {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+	
+	private boolean read(Path file, int maxDetails, SourceCodeChanges moduleTree) throws IOException {
+		if (!Files.isRegularFile(file)) {
+			return false;
+		}
+		final Map<String, SourceCodeChanges> modules = new HashMap<>();
+		for (final SourceCodeChanges module : moduleTree) {
+			modules.put(module.getCoords(), module);
+		}
+		// Read everything before touching module tree, a corrupt entry must not leave partial results behind
+		final Map<SourceCodeChanges, int[]> counts = new HashMap<>();
+		final Map<SourceCodeChanges, List<SourceCodeDiff>> changes = new HashMap<>();
+		final DiffType[] types = DiffType.values();
+		try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() < maxDetails) {
+				return false;
+			}
+			final int moduleCount = in.readInt();
+			for (int i = 0; i < moduleCount; i++) {
+				final SourceCodeChanges module = modules.get(in.readUTF());
+				if (module == null) {
+					return false;
+				}
+				final int[] typeCounts = new int[types.length];
+				for (int type = 0; type < types.length; type++) {
+					typeCounts[type] = in.readInt();
+				}
+				final int diffCount = in.readInt();
+				if (diffCount < 0) {
+					return false;
+				}
+				final List<SourceCodeDiff> diffs = new ArrayList<>(Math.min(diffCount, maxDetails));
+				for (int j = 0; j < diffCount; j++) {
+					final int type = in.readByte();
+					if (type < 0 || type >= types.length || --typeCounts[type] < 0) {
+						return false;
+					}
+					diffs.add(new SourceCodeDiff(types[type], in.readUTF(), in.readUTF()));
+				}
+				counts.put(module, typeCounts);
+				changes.put(module, diffs);
+			}
+		}
+		changes.forEach((module, diffs) -> {
+			for (final SourceCodeDiff diff : diffs) {
+				module.addDiff(diff.getType(), diff.getOldPath(), diff.getNewPath());
+			}
+			// Diffs without details
+			final int[] typeCounts = counts.get(module);
+			for (int type = 0; type < types.length; type++) {
+				module.addDiffCount(types[type], typeCounts[type]);
+			}
+		});
+		return true;
+	}
+	
+	private Path fileOf(AnyObjectId localTree, AnyObjectId remoteTree, String layout, boolean firstChangeOnly) {
+		return this.directory
+			.resolve(localTree.name() + "-" + remoteTree.name() + "-" + layout + (firstChangeOnly ? "-first" : "")
+					+ FILE_EXTENSION);
+	}
+	
+	/**
+	 * Hash of module coordinates, versions and root relative paths. Independent of iteration order and checkout
+	 * location, so that a shared cache directory can serve several checkouts.
+	 */
+	private static String layoutHash(SourceCodeChanges moduleTree) {
+		final String rootPath = moduleTree.getPath().replace(File.separatorChar, '/');
+		final List<String> modules = new ArrayList<>();
+		for (final SourceCodeChanges module : moduleTree) {
+			final String path = module.getPath().replace(File.separatorChar, '/');
+			modules
+				.add(module.getCoords() + ":" + module.getVersion() + ":"
+						+ (path.startsWith(rootPath) ? path.substring(rootPath.length()) : path));
+		}
+		modules.sort(null);
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			for (final String module : modules) {
+				digest.update(module.getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) '\n');
+			}
+			final StringBuilder hex = new StringBuilder();
+			final byte[] hash = digest.digest();
+			for (int i = 0; i < 8; i++) {
+				hex.append(String.format("%02x", hash[i]));
+			}
+			return hex.toString();
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-1 is not available", e);
+		}
+	}
+}
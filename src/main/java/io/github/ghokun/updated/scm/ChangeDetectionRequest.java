@@ -0,0 +1,292 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.scm;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import io.github.ghokun.updated.enumeration.ChangeScope;
+import io.github.ghokun.updated.enumeration.ComparisonBase;
+import io.github.ghokun.updated.metrics.Metrics;
+
+/**
+ * Options of a {@link SourceCodeChangeDetector#detectChanges} call.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class ChangeDetectionRequest {
+	
+	private String remoteBranch = "HEAD";
+	private boolean firstChangeOnly;
+	private int maxChangeDetails = Integer.MAX_VALUE;
+	private int diffThreads = 1;
+	private Path cacheDirectory;
+	private Consumer<SourceCodeChanges> firstChangeListener = module -> {
+	};
+	private Metrics metrics = new Metrics();
+	private boolean fetch;
+	private long fetchInterval;
+	private ComparisonBase comparisonBase = ComparisonBase.TIP;
+	private ChangeScope changeScope = ChangeScope.COMMITTED;
+	private Path snapshotFile;
+	private boolean updateSnapshot;
+	private Set<String> directories;
+	
+	/**
+	 * @return Remote branch name to compare local changes
+	 */
+	public String getRemoteBranch() {
+		return this.remoteBranch;
+	}
+	
+	/**
+	 * @param remoteBranch Remote branch name to compare local changes.
+	 * @return This request
+	 */
+	public ChangeDetectionRequest setRemoteBranch(String remoteBranch) {
+		this.remoteBranch = remoteBranch;
+		return this;
+	}
+	
+	/**
+	 * @return True if detection of a module stops at its first change
+	 */
+	public boolean isFirstChangeOnly() {
+		return this.firstChangeOnly;
+	}
+	
+	/**
+	 * @param firstChangeOnly If true, detection of a module stops at its first change. Resulting modules answer
+	 *            {@link SourceCodeChanges#hasDiff()} correctly but hold at most one diff each.
+	 * @return This request
+	 */
+	public ChangeDetectionRequest setFirstChangeOnly(boolean firstChangeOnly) {
+		this.firstChangeOnly = firstChangeOnly;
+		return this;
+	}
+	
+	/**
+	 * @return Maximum number of diffs whose paths are kept per module
+	 */
+	public int getMaxChangeDetails() {
+		return this.maxChangeDetails;
+	}
+	
+	/**
+	 * @param maxChangeDetails Maximum number of diffs whose paths are kept per module. Further diffs are only counted.
+	 * @return This request
+	 */
+	public ChangeDetectionRequest setMaxChangeDetails(int maxChangeDetails) {
+		this.maxChangeDetails = maxChangeDetails;
+		return this;
+	}
+	
+	/**
+	 * @return Number of threads that diff committed trees
+	 */
+	public int getDiffThreads() {
+		return this.diffThreads;
+	}
+	
+	/**
+	 * @param diffThreads Number of threads that diff committed trees, split by module directories. Sequential when 1,
+	 *            one per processor when 0. First change listener may be called concurrently when not 1.
+	 * @return This request
+	 */
+	public ChangeDetectionRequest setDiffThreads(int diffThreads) {
+		this.diffThreads = diffThreads;
+		return this;
+	}
+	
+	/**
+	 * @return Directory to store and reuse detected changes in, null if caching is disabled
+	 */
+	public Path getCacheDirectory() {
+		return this.cacheDirectory;
+	}
+	
+	/**
+	 * @param cacheDirectory Directory to store and reuse detected changes in, null to disable caching.
+	 * @return This request
+	 */
+	public ChangeDetectionRequest setCacheDirectory(Path cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+		return this;
+	}
+	
+	/**
+	 * @return Listener called with a module as soon as its first change is detected
+	 */
+	public Consumer<SourceCodeChanges> getFirstChangeListener() {
+		return this.firstChangeListener;
+	}
+	
+	/**
+	 * @param firstChangeListener Called with a module as soon as its first change is detected, while detection goes
+	 *            on. Not called for changes reused from cache.
+	 * @return This request
+	 */
+	public ChangeDetectionRequest setFirstChangeListener(Consumer<SourceCodeChanges> firstChangeListener) {
+		this.firstChangeListener = firstChangeListener;
+		return this;
+	}
+	
+	/**
+	 * @return Metrics to record detection phases to
+	 */
+	public Metrics getMetrics() {
+		return this.metrics;
+	}
+	
+	/**
+	 * @param metrics Metrics to record detection phases to.
+	 * @return This request
+	 */
+	public ChangeDetectionRequest setMetrics(Metrics metrics) {
+		this.metrics = metrics;
+		return this;
+	}
+	
+	/**
+	 * @return True if remote branch is fetched before detection
+	 */
+	public boolean isFetch() {
+		return this.fetch;
+	}
+	
+	/**
+	 * @param fetch If true, remote branch is fetched before detection. Only that branch is fetched, without tags.
+	 * @return This request
+	 */
+	public ChangeDetectionRequest setFetch(boolean fetch) {
+		this.fetch = fetch;
+		return this;
+	}
+	
+	/**
+	 * @return Seconds after a fetch of remote branch during which it is not fetched again
+	 */
+	public long getFetchInterval() {
+		return this.fetchInterval;
+	}
+	
+	/**
+	 * @param fetchInterval Seconds after a fetch of remote branch during which it is not fetched again, 0 to always
+	 *            fetch.
+	 * @return This request
+	 */
+	public ChangeDetectionRequest setFetchInterval(long fetchInterval) {
+		this.fetchInterval = fetchInterval;
+		return this;
+	}
+	
+	/**
+	 * @return Remote commit to compare local changes to
+	 */
+	public ComparisonBase getComparisonBase() {
+		return this.comparisonBase;
+	}
+	
+	/**
+	 * @param comparisonBase Remote commit to compare local changes to.
+	 * @return This request
+	 */
+	public ChangeDetectionRequest setComparisonBase(ComparisonBase comparisonBase) {
+		this.comparisonBase = comparisonBase;
+		return this;
+	}
+	
+	/**
+	 * @return Local state to compare to remote
+	 */
+	public ChangeScope getChangeScope() {
+		return this.changeScope;
+	}
+	
+	/**
+	 * @param changeScope Local state to compare to remote. Changes of index and working tree are not cached.
+	 * @return This request
+	 */
+	public ChangeDetectionRequest setChangeScope(ChangeScope changeScope) {
+		this.changeScope = changeScope;
+		return this;
+	}
+	
+	/**
+	 * @return File snapshot to compare to without version control, null for default one
+	 */
+	public Path getSnapshotFile() {
+		return this.snapshotFile;
+	}
+	
+	/**
+	 * @param snapshotFile File snapshot to compare to without version control, null for one in build directory of
+	 *            root module.
+	 * @return This request
+	 */
+	public ChangeDetectionRequest setSnapshotFile(Path snapshotFile) {
+		this.snapshotFile = snapshotFile;
+		return this;
+	}
+	
+	/**
+	 * @return True if file snapshot is rewritten with current files
+	 */
+	public boolean isUpdateSnapshot() {
+		return this.updateSnapshot;
+	}
+	
+	/**
+	 * @param updateSnapshot If true, file snapshot is rewritten with current files when they differ from it. False by
+	 *            default, so that detection does not move the baseline.
+	 * @return This request
+	 */
+	public ChangeDetectionRequest setUpdateSnapshot(boolean updateSnapshot) {
+		this.updateSnapshot = updateSnapshot;
+		return this;
+	}
+	
+	/**
+	 * @return Directories that detection is limited to, null for all files
+	 */
+	public Set<String> getDirectories() {
+		return this.directories;
+	}
+	
+	/**
+	 * Limits detection to files within given directories. Applies to WORKING_TREE scope and FILESYSTEM scm, file
+	 * snapshot is not updated then.
+	 *
+	 * @param directories Directories relative to root module and separated by '/', null for all files. Modules that
+	 *            lie outside of them are left without diffs.
+	 * @return This request
+	 */
+	public ChangeDetectionRequest setDirectories(Set<String> directories) {
+		this.directories = directories;
+		return this;
+	}
+}
@@ -0,0 +1,262 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.scm;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jgit.diff.DiffEntry;
+
+/**
+ * Diffs of a single module. Change counts per {@link DiffType} are always exact, while details are kept for at most
+ * a fixed number of diffs.
+ * <p>
+ * Details live in primitive arrays. A path is a run of segment ids in {@code pathData}, relative to the module root,
+ * and each distinct segment string is stored once per module. An entry refers to its paths by offset, and shares a
+ * single run when old and new paths are equal. {@link DiffEntry#DEV_NULL} is offset -1.
+ * <p>
+ * Detailed diffs are distinct: an open addressing table of entry indices, keyed by type and path hashes, drops a diff
+ * that is already listed. Diffs beyond the detail limit have nothing to compare to, so they are always counted.
+ *
+ * <pre>
+ * pathData : segmentCount, segmentId...   (negative segmentCount: path is outside of module root)
+ * </pre>
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+final class CompactDiffs {
+	
+	private static final int DEV_NULL = -1;
+	private static final int[] EMPTY = new int[0];
+	
+	private final int[] counts = new int[DiffType.values().length];
+	private int maxDetails = Integer.MAX_VALUE;
+	private String root = "";
+	
+	private final Map<String, Integer> segmentIds = new HashMap<>();
+	private String[] segments = new String[0];
+	private int[] pathData = EMPTY;
+	private int pathDataSize;
+	
+	private byte[] types = new byte[0];
+	private int[] oldPaths = EMPTY;
+	private int[] newPaths = EMPTY;
+	private int[] hashes = EMPTY;
+	private int size;
+	
+	/** Entry index + 1 per slot, 0 for an empty slot. Length is a power of two, at most half full. */
+	private int[] table = EMPTY;
+	
+	/**
+	 * @param root Repository relative directory of module, separated and terminated by '/', or empty for root module
+	 */
+	void setRoot(String root) {
+		this.root = root;
+	}
+	
+	/**
+	 * @param maxDetails Maximum number of diffs whose details are kept
+	 */
+	void setMaxDetails(int maxDetails) {
+		this.maxDetails = Math.max(0, maxDetails);
+	}
+	
+	/**
+	 * @return {@code false} if an equal diff is already listed
+	 */
+	boolean add(DiffType type, String oldPath, String newPath) {
+		if (this.size >= this.maxDetails) {
+			this.counts[type.ordinal()]++;
+			return true;
+		}
+		final int hash = (31 * type.ordinal() + oldPath.hashCode()) * 31 + newPath.hashCode();
+		int slot = this.slot(hash);
+		while (this.table[slot] != 0) {
+			if (this.matches(this.table[slot] - 1, hash, type, oldPath, newPath)) {
+				return false;
+			}
+			slot = (slot + 1) & (this.table.length - 1);
+		}
+		this.counts[type.ordinal()]++;
+		if (this.size == this.types.length) {
+			final int capacity = Math.max(4, this.size + (this.size >> 1));
+			this.types = Arrays.copyOf(this.types, capacity);
+			this.oldPaths = Arrays.copyOf(this.oldPaths, capacity);
+			this.newPaths = Arrays.copyOf(this.newPaths, capacity);
+			this.hashes = Arrays.copyOf(this.hashes, capacity);
+		}
+		final int oldOffset = this.intern(oldPath);
+		this.types[this.size] = (byte) type.ordinal();
+		this.oldPaths[this.size] = oldOffset;
+		this.newPaths[this.size] = newPath.equals(oldPath) ? oldOffset : this.intern(newPath);
+		this.hashes[this.size] = hash;
+		this.table[slot] = ++this.size;
+		return true;
+	}
+	
+	/**
+	 * @return Home slot of given hash, growing the table beforehand so it stays at most half full
+	 */
+	private int slot(int hash) {
+		if ((this.size + 1) << 1 > this.table.length) {
+			this.table = new int[Math.max(8, this.table.length << 1)];
+			for (int i = 0; i < this.size; i++) {
+				int slot = this.home(this.hashes[i]);
+				while (this.table[slot] != 0) {
+					slot = (slot + 1) & (this.table.length - 1);
+				}
+				this.table[slot] = i + 1;
+			}
+		}
+		return this.home(hash);
+	}
+	
+	private int home(int hash) {
+		return (hash ^ (hash >>> 16)) & (this.table.length - 1);
+	}
+	
+	private boolean matches(int index, int hash, DiffType type, String oldPath, String newPath) {
+		return this.hashes[index] == hash && this.types[index] == type.ordinal()
+				&& this.path(this.oldPaths[index]).equals(oldPath) && this.path(this.newPaths[index]).equals(newPath);
+	}
+	
+	/**
+	 * Adds counts without details, e.g. diffs that were dropped by a cache entry.
+	 */
+	void addCount(DiffType type, int count) {
+		this.counts[type.ordinal()] += count;
+	}
+	
+	int count() {
+		int count = 0;
+		for (final int typeCount : this.counts) {
+			count += typeCount;
+		}
+		return count;
+	}
+	
+	int count(DiffType type) {
+		return this.counts[type.ordinal()];
+	}
+	
+	/**
+	 * @return Number of diffs that are counted but have no details
+	 */
+	int omitted() {
+		return this.count() - this.size;
+	}
+	
+	/**
+	 * @return Details in order of addition. Diffs are created on access.
+	 */
+	List<SourceCodeDiff> details() {
+		final DiffType[] values = DiffType.values();
+		return new AbstractList<SourceCodeDiff>() {
+			
+			@Override
+			public SourceCodeDiff get(int index) {
+				if (index < 0 || index >= CompactDiffs.this.size) {
+					throw new IndexOutOfBoundsException(String.valueOf(index));
+				}
+				return new SourceCodeDiff(values[CompactDiffs.this.types[index]],
+					CompactDiffs.this.path(CompactDiffs.this.oldPaths[index]),
+					CompactDiffs.this.path(CompactDiffs.this.newPaths[index]));
+			}
+			
+			@Override
+			public int size() {
+				return CompactDiffs.this.size;
+			}
+		};
+	}
+	
+	private int intern(String path) {
+		if (DiffEntry.DEV_NULL.equals(path)) {
+			return DEV_NULL;
+		}
+		final boolean inRoot = path.startsWith(this.root);
+		final int start = inRoot ? this.root.length() : 0;
+		int segmentCount = 0;
+		for (int i = start; i < path.length(); i++) {
+			if (path.charAt(i) == '/') {
+				segmentCount++;
+			}
+		}
+		segmentCount++;
+		this.ensurePathData(segmentCount + 1);
+		final int offset = this.pathDataSize;
+		this.pathData[this.pathDataSize++] = inRoot ? segmentCount : -segmentCount;
+		int segmentStart = start;
+		for (int i = 0; i < segmentCount; i++) {
+			int segmentEnd = path.indexOf('/', segmentStart);
+			if (segmentEnd < 0) {
+				segmentEnd = path.length();
+			}
+			this.pathData[this.pathDataSize++] = this.segmentId(path.substring(segmentStart, segmentEnd));
+			segmentStart = segmentEnd + 1;
+		}
+		return offset;
+	}
+	
+	private int segmentId(String segment) {
+		final Integer existing = this.segmentIds.get(segment);
+		if (existing != null) {
+			return existing;
+		}
+		final int id = this.segmentIds.size();
+		if (id == this.segments.length) {
+			this.segments = Arrays.copyOf(this.segments, Math.max(8, id << 1));
+		}
+		this.segments[id] = segment;
+		this.segmentIds.put(segment, id);
+		return id;
+	}
+	
+	private void ensurePathData(int length) {
+		if (this.pathDataSize + length > this.pathData.length) {
+			this.pathData = Arrays
+				.copyOf(this.pathData, Math.max(this.pathDataSize + length, this.pathData.length << 1));
+		}
+	}
+	
+	private String path(int offset) {
+		if (offset == DEV_NULL) {
+			return DiffEntry.DEV_NULL;
+		}
+		final int header = this.pathData[offset];
+		final StringBuilder path = new StringBuilder(header > 0 ? this.root : "");
+		final int segmentCount = Math.abs(header);
+		for (int i = 1; i <= segmentCount; i++) {
+			if (i > 1) {
+				path.append('/');
+			}
+			path.append(this.segments[this.pathData[offset + i]]);
+		}
+		return path.toString();
+	}
+}
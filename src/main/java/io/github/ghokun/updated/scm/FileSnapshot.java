@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.scm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+
+/**
+ * Manifest of files below a root directory: path, size, last modified time and git blob id of content. Entries are
+ * sorted by path and kept in parallel arrays, paths are front coded against the previous path in file.
+ *
+ * <pre>
+ * int    magic
+ * long   epoch milliseconds at which walk of files started
+ * int    number of files
+ * repeat
+ *   short  length of prefix shared with previous path
+ *   UTF    rest of root relative path, separated by '/'
+ *   long   size
+ *   long   last modified epoch milliseconds
+ *   byte[] 20 byte blob id
+ * </pre>
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+final class FileSnapshot {
+	
+	private static final int MAGIC = 0x55505331; // UPS1
+	private static final int MAX_PREFIX = 0xFFFF;
+	
+	private final long timestamp;
+	private final String[] paths;
+	private final long[] sizes;
+	private final long[] lastModified;
+	private final byte[] ids;
+	private int size;
+	
+	/**
+	 * @param timestamp Epoch milliseconds at which walk of files started, 0 if unknown
+	 * @param capacity Number of files
+	 */
+	FileSnapshot(long timestamp, int capacity) {
+		this.timestamp = timestamp;
+		this.paths = new String[capacity];
+		this.sizes = new long[capacity];
+		this.lastModified = new long[capacity];
+		this.ids = new byte[capacity * Constants.OBJECT_ID_LENGTH];
+	}
+	
+	/**
+	 * Reads snapshot of given file.
+	 *
+	 * @return Read snapshot, empty snapshot if file does not exist
+	 * @throws IOException If file exists but could not be read
+	 */
+	static FileSnapshot read(Path file) throws IOException {
+		if (!Files.isRegularFile(file)) {
+			return new FileSnapshot(0, 0);
+		}
+		try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not a file snapshot: " + file);
+			}
+			final long timestamp = in.readLong();
+			final int count = in.readInt();
+			if (count < 0) {
+				throw new IOException("Corrupt file snapshot: " + file);
+			}
+			final FileSnapshot snapshot = new FileSnapshot(timestamp, count);
+			final byte[] id = new byte[Constants.OBJECT_ID_LENGTH];
+			String previous = "";
+			for (int i = 0; i < count; i++) {
+				final int prefix = in.readUnsignedShort();
+				if (prefix > previous.length()) {
+					throw new IOException("Corrupt file snapshot: " + file);
+				}
+				final String path = previous.substring(0, prefix) + in.readUTF();
+				if (i > 0 && path.compareTo(previous) <= 0) {
+					throw new IOException("Corrupt file snapshot: " + file);
+				}
+				final long size = in.readLong();
+				final long lastModified = in.readLong();
+				in.readFully(id);
+				snapshot.add(path, size, lastModified, ObjectId.fromRaw(id));
+				previous = path;
+			}
+			return snapshot;
+		}
+	}
+	
+	/**
+	 * Writes this snapshot to given file, replacing it at once.
+	 *
+	 * @throws IOException If file could not be written
+	 */
+	void write(Path file) throws IOException {
+		final Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		final Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try {
+			try (final DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeLong(this.timestamp);
+				out.writeInt(this.size);
+				String previous = "";
+				for (int i = 0; i < this.size; i++) {
+					final String path = this.paths[i];
+					final int limit = Math.min(MAX_PREFIX, Math.min(previous.length(), path.length()));
+					int prefix = 0;
+					while (prefix < limit && previous.charAt(prefix) == path.charAt(prefix)) {
+						prefix++;
+					}
+					// Surrogate pairs are not split between prefix and rest
+					if (prefix > 0 && Character.isHighSurrogate(path.charAt(prefix - 1))) {
+						prefix--;
+					}
+					out.writeShort(prefix);
+					out.writeUTF(path.substring(prefix));
+					out.writeLong(this.sizes[i]);
+					out.writeLong(this.lastModified[i]);
+					out.write(this.ids, i * Constants.OBJECT_ID_LENGTH, Constants.OBJECT_ID_LENGTH);
+					previous = path;
+				}
+			}
+			try {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+	
+	/**
+	 * Appends a file. Files must be added in ascending order of paths.
+	 */
+	void add(String path, long size, long lastModified, AnyObjectId id) {
+		this.paths[this.size] = path;
+		this.sizes[this.size] = size;
+		this.lastModified[this.size] = lastModified;
+		id.copyRawTo(this.ids, this.size * Constants.OBJECT_ID_LENGTH);
+		this.size++;
+	}
+	
+	long timestamp() {
+		return this.timestamp;
+	}
+	
+	int size() {
+		return this.size;
+	}
+	
+	String path(int i) {
+		return this.paths[i];
+	}
+	
+	long size(int i) {
+		return this.sizes[i];
+	}
+	
+	long lastModified(int i) {
+		return this.lastModified[i];
+	}
+	
+	ObjectId id(int i) {
+		return ObjectId.fromRaw(this.ids, i * Constants.OBJECT_ID_LENGTH);
+	}
+}
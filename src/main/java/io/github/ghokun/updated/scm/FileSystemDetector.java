@@ -0,0 +1,334 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.scm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+
+import io.github.ghokun.updated.metrics.Metrics;
+
+/**
+ * Source code change detector for source trees without version control, e.g. unpacked source archives. Files below the
+ * root module are compared to a {@link FileSnapshot} written by an earlier detection that was asked to
+ * {@link ChangeDetectionRequest#setUpdateSnapshot update} it. A file whose size and last modified time match its
+ * snapshot entry is unchanged without being read, other files are hashed in parallel. A file modified close to the time
+ * its snapshot was taken is always hashed, since a later change within the resolution of file system timestamps would
+ * go unnoticed otherwise.
+ *
+ * <pre>
+ * Added    : Files that are not in snapshot, all files if there is no snapshot.
+ * Deleted  : Files of snapshot that do not exist anymore.
+ * Modified : Files whose content differs from snapshot.
+ * </pre>
+ *
+ * Build directories of reactor modules, version control metadata and local repositories (.m2) are skipped. Remote
+ * branch, comparison base and change scope do not apply.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public final class FileSystemDetector implements SourceCodeChangeDetector {
+	
+	/**
+	 * Coarsest last modified time resolution of common file systems.
+	 */
+	private static final long RACY_MILLIS = 2000;
+	private static final Set<String> SKIPPED_DIRECTORIES = new HashSet<>(Arrays.asList(".git", ".hg", ".m2", ".svn"));
+	
+	private final GitDetector jgit = new GitDetector();
+	
+	@Override
+	public SourceCodeChanges detectChanges(
+			MavenProject project,
+			Set<MavenProject> projects,
+			Log log,
+			ChangeDetectionRequest request) throws MojoExecutionException {
+		final Metrics metrics = request.getMetrics();
+		final Path root = project.getBasedir().toPath().toAbsolutePath().normalize();
+		final Path snapshotFile = (request.getSnapshotFile() != null
+				? request.getSnapshotFile()
+				: Paths.get(project.getBuild().getDirectory(), "updated", "snapshot.bin")).toAbsolutePath().normalize();
+		
+		final SourceCodeChanges moduleTree;
+		final ModuleIndex moduleIndex;
+		final Metrics.Timer modulesTimer = metrics.start("scm.modules");
+		try {
+			moduleTree = GitDetector.generateTree(project, projects);
+			moduleIndex = new ModuleIndex(moduleTree);
+			for (final SourceCodeChanges module : moduleTree) {
+				module.setMaxDiffDetails(request.getMaxChangeDetails());
+			}
+		} finally {
+			modulesTimer.stop();
+		}
+		
+		FileSnapshot snapshot;
+		final Metrics.Timer readTimer = metrics.start("scm.snapshot");
+		try {
+			snapshot = FileSnapshot.read(snapshotFile);
+		} catch (final IOException e) {
+			log.warn("Could not read file snapshot " + snapshotFile, e);
+			snapshot = new FileSnapshot(0, 0);
+		} finally {
+			readTimer.stop();
+		}
+		if (snapshot.size() == 0) {
+			log
+				.info("Snapshot      : none, all files are added" + (request.isUpdateSnapshot()
+						? ""
+						: ", record one with updateSnapshot"));
+		} else {
+			log.info("Snapshot      : " + snapshotFile + " (" + snapshot.size() + " files)");
+		}
+		
+		try {
+			// Files modified after this are hashed on next detection
+			final long timestamp = System.currentTimeMillis();
+			final List<SnapshotFile> files;
+			final Metrics.Timer walkTimer = metrics.start("scm.walk");
+			try {
+				files = walk(root, request.getDirectories(), snapshotFile, projects);
+			} finally {
+				walkTimer.stop();
+			}
+			
+			final List<SnapshotFile> unhashed = new ArrayList<>();
+			boolean dirty = false;
+			final Metrics.Timer diffTimer = metrics.start("scm.diff");
+			try {
+				int i = 0;
+				int j = 0;
+				while (i < files.size() || j < snapshot.size()) {
+					if (j < snapshot.size() && !isWithin(snapshot.path(j), request.getDirectories())) {
+						j++;
+						continue;
+					}
+					final int compare = i == files.size()
+							? 1
+							: j == snapshot.size()
+									? -1
+									: files.get(i).path.compareTo(snapshot.path(j));
+					dirty |= compare != 0;
+					if (compare > 0) {
+						this.attribute(snapshot.path(j++), FileMode.REGULAR_FILE, FileMode.MISSING, moduleIndex, request);
+						continue;
+					}
+					final SnapshotFile file = files.get(i++);
+					if (compare < 0) {
+						this.attribute(file.path, FileMode.MISSING, FileMode.REGULAR_FILE, moduleIndex, request);
+						unhashed.add(file);
+					} else if (file.size == snapshot.size(j) && file.lastModified == snapshot.lastModified(j)
+							&& file.lastModified + RACY_MILLIS <= snapshot.timestamp()) {
+						file.id = snapshot.id(j++);
+					} else {
+						file.previousId = snapshot.id(j++);
+						unhashed.add(file);
+						dirty = true;
+					}
+				}
+			} finally {
+				diffTimer.stop();
+			}
+			
+			// Without a snapshot to write, only files that may change an unchanged module are read
+			final boolean updateSnapshot = request.isUpdateSnapshot() && request.getDirectories() == null;
+			if (!updateSnapshot) {
+				unhashed
+					.removeIf(file -> file.previousId == null
+							|| request.isFirstChangeOnly() && moduleIndex.find(file.path).hasDiff());
+			}
+			final Metrics.Timer hashTimer = metrics.start("scm.hash");
+			try {
+				unhashed.parallelStream().forEach(SnapshotFile::hash);
+			} catch (final UncheckedIOException e) {
+				throw e.getCause();
+			} finally {
+				hashTimer.stop();
+			}
+			metrics.add("hashed files", unhashed.size());
+			for (final SnapshotFile file : unhashed) {
+				if (file.previousId != null && !file.previousId.equals(file.id)) {
+					this.attribute(file.path, FileMode.REGULAR_FILE, FileMode.REGULAR_FILE, moduleIndex, request);
+				}
+			}
+			
+			if (updateSnapshot && dirty) {
+				final Metrics.Timer writeTimer = metrics.start("scm.snapshot");
+				try {
+					final FileSnapshot update = new FileSnapshot(timestamp, files.size());
+					for (final SnapshotFile file : files) {
+						update.add(file.path, file.size, file.lastModified, file.id);
+					}
+					update.write(snapshotFile);
+				} finally {
+					writeTimer.stop();
+				}
+				log.info("Snapshot      : updated (" + files.size() + " files)");
+			}
+			return moduleTree;
+			
+		} catch (final IOException e) {
+			throw new MojoExecutionException("An error occurred while detecting source code changes", e);
+		}
+	}
+	
+	/**
+	 * Same attribution as {@link GitCliDetector}, without stopping early since snapshot needs every file.
+	 */
+	private void attribute(
+			String path,
+			FileMode oldMode,
+			FileMode newMode,
+			ModuleIndex moduleIndex,
+			ChangeDetectionRequest request) {
+		if (request.isFirstChangeOnly() && moduleIndex.find(path).hasDiff()) {
+			return;
+		}
+		final Consumer<SourceCodeChanges> listener = request.getFirstChangeListener();
+		this.jgit.parseDiff(path, oldMode, newMode, moduleIndex, listener);
+	}
+	
+	/**
+	 * @return True if root relative path is within one of given directories, or directories are null
+	 */
+	private static boolean isWithin(String path, Set<String> directories) {
+		if (directories == null) {
+			return true;
+		}
+		for (final String directory : directories) {
+			if (path.startsWith(directory) && path.length() > directory.length()
+					&& path.charAt(directory.length()) == '/') {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Lists regular files below root, or below given root relative directories, sorted by root relative path. Symbolic
+	 * links are not followed.
+	 */
+	private static List<SnapshotFile> walk(
+			Path root,
+			Set<String> directories,
+			Path snapshotFile,
+			Set<MavenProject> projects) throws IOException {
+		final Set<Path> buildDirectories = new HashSet<>();
+		for (final MavenProject p : projects) {
+			buildDirectories.add(Paths.get(p.getBuild().getDirectory()).toAbsolutePath().normalize());
+		}
+		final List<SnapshotFile> files = new ArrayList<>();
+		final List<Path> starts = new ArrayList<>();
+		if (directories == null) {
+			starts.add(root);
+		} else {
+			for (final String directory : directories) {
+				final Path start = root.resolve(directory);
+				// Nested directories are walked with their enclosing one
+				if (Files.isDirectory(start) && !isWithin(directory, directories)) {
+					starts.add(start);
+				}
+			}
+		}
+		for (final Path start : starts) {
+			Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+				
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+					if (!dir.equals(root) && (SKIPPED_DIRECTORIES.contains(dir.getFileName().toString())
+							|| buildDirectories.contains(dir))) {
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+					return FileVisitResult.CONTINUE;
+				}
+				
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					if (attrs.isRegularFile() && !file.equals(snapshotFile)) {
+						files
+							.add(new SnapshotFile(root.relativize(file).toString().replace(File.separatorChar, '/'),
+								file, attrs.size(), attrs.lastModifiedTime().toMillis()));
+					}
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		}
+		files.sort(Comparator.comparing(file -> file.path));
+		return files;
+	}
+	
+	/**
+	 * File found by walk, whose id is taken from snapshot or computed out of walk.
+	 */
+	private static final class SnapshotFile {
+		
+		private final String path;
+		private final Path file;
+		private long size;
+		private final long lastModified;
+		private ObjectId previousId;
+		private ObjectId id;
+		
+		private SnapshotFile(String path, Path file, long size, long lastModified) {
+			this.path = path;
+			this.file = file;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+		
+		private void hash() {
+			try (final InputStream in = Files.newInputStream(this.file)) {
+				// Size may have changed since walk, a later modified time then makes next detection hash it again
+				this.size = Files.size(this.file);
+				this.id = new ObjectInserter.Formatter().idFor(Constants.OBJ_BLOB, this.size, in);
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,467 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.scm;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+
+import io.github.ghokun.updated.enumeration.ChangeScope;
+import io.github.ghokun.updated.enumeration.ComparisonBase;
+
+/**
+ * Source code change detector implementation for Git that runs the git executable, so that commit-graph, fsmonitor
+ * and multi-pack-index of the repository are used. Diffs are read as NUL separated {@code git diff --raw} output while
+ * git is still running. File modes of raw output let changes be attributed exactly as {@link GitDetector} does.
+ * Falls back to {@link GitDetector} when no git executable is found on PATH.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public final class GitCliDetector extends AbstractGitDetector<GitCliDetector.WorkTree> {
+	
+	private static final String GIT = "git";
+	private static final String[] DIFF = {
+		"diff", "--raw", "-z", "--no-renames", "--no-ext-diff", "--no-textconv", "--ignore-submodules=dirty"
+	};
+	
+	private static volatile Boolean available;
+	
+	private final GitDetector jgit = new GitDetector();
+	
+	/**
+	 * @return True if git executable can be run. Checked once per JVM.
+	 */
+	static boolean isAvailable() {
+		Boolean result = available;
+		if (result == null) {
+			try (final GitProcess git = new GitProcess(new File("."), "--version")) {
+				git.await();
+				result = true;
+			} catch (final IOException e) {
+				result = false;
+			}
+			available = result;
+		}
+		return result;
+	}
+	
+	@Override
+	public SourceCodeChanges detectChanges(
+			MavenProject project,
+			Set<MavenProject> projects,
+			Log log,
+			ChangeDetectionRequest request) throws MojoExecutionException {
+		if (!isAvailable()) {
+			log.warn("Could not run " + GIT + " executable, using JGit instead.");
+			return this.jgit.detectChanges(project, projects, log, request);
+		}
+		return super.detectChanges(project, projects, log, request);
+	}
+	
+	@Override
+	WorkTree open(MavenProject project) {
+		return new WorkTree(project.getBasedir());
+	}
+	
+	@Override
+	void fetch(WorkTree workTree, ChangeDetectionRequest request, Log log) throws IOException {
+		this.fetch(workTree.directory, request, log);
+	}
+	
+	@Override
+	Trees resolve(WorkTree workTree, ChangeDetectionRequest request, Log log)
+			throws IOException, MojoExecutionException {
+		final File directory = workTree.directory;
+		// Get local tree
+		log.info("Local Branch  : " + run(directory, "rev-parse", "--abbrev-ref", Constants.HEAD));
+		final ObjectId localHead = ObjectId
+			.fromString(run(directory, "rev-parse", "--verify", Constants.HEAD + "^{tree}"));
+		log.info("Local Head    : " + localHead.toString());
+		if (request.getChangeScope() != ChangeScope.COMMITTED) {
+			log.info("Local Scope   : " + request.getChangeScope());
+		}
+		
+		// Get remote tree
+		final String remoteBranch = request.getRemoteBranch();
+		final String remoteRef = REMOTE_REFS + remoteBranch;
+		log.info("Remote Branch : " + remoteBranch);
+		if (runOrNull(directory, "rev-parse", "-q", "--verify", remoteRef + "^{commit}") == null) {
+			throw missingRemoteBranch(remoteBranch);
+		}
+		String remoteCommit = remoteRef;
+		if (request.getComparisonBase() == ComparisonBase.MERGE_BASE) {
+			final String mergeBase = runOrNull(directory, "merge-base", Constants.HEAD, remoteRef);
+			if (mergeBase == null) {
+				log.warn("Local and remote branches have no common history, comparing to remote branch.");
+			} else {
+				log.info("Merge Base    : " + mergeBase);
+				remoteCommit = mergeBase;
+			}
+		}
+		final ObjectId remoteHead = ObjectId
+			.fromString(run(directory, "rev-parse", "--verify", remoteCommit + "^{tree}"));
+		log.info("Remote Head   : " + remoteHead.toString());
+		return new Trees(localHead, remoteHead);
+	}
+	
+	@Override
+	void diff(WorkTree workTree, Trees trees, ModuleIndex moduleIndex, ChangeDetectionRequest request)
+			throws IOException {
+		final AtomicInteger unchangedModules = new AtomicInteger(moduleIndex.size());
+		final List<String> diff = new ArrayList<>(Arrays.asList(DIFF));
+		if (request.getChangeScope() == ChangeScope.INDEX) {
+			diff.add("--cached");
+		}
+		diff.add(trees.remote.name());
+		if (request.getChangeScope() == ChangeScope.COMMITTED) {
+			diff.add(trees.local.name());
+		}
+		final List<String> pathspecs = new ArrayList<>();
+		if (request.getDirectories() != null && request.getChangeScope() == ChangeScope.WORKING_TREE) {
+			pathspecs.add("--");
+			for (final String path : request.getDirectories()) {
+				pathspecs.add(":(literal)" + path);
+			}
+		}
+		diff.addAll(pathspecs);
+		final boolean done = this.readDiffs(workTree.directory, diff, moduleIndex, request, unchangedModules);
+		if (!done && request.getChangeScope() == ChangeScope.WORKING_TREE) {
+			final List<String> untracked = new ArrayList<>(
+				Arrays.asList("ls-files", "-z", "--others", "--exclude-standard", "--full-name"));
+			untracked.addAll(pathspecs);
+			this.readUntracked(workTree.directory, untracked, moduleIndex, request, unchangedModules);
+		}
+	}
+	
+	@Override
+	public Map<String, String> fingerprints(MavenProject project, Set<MavenProject> projects, Log log)
+			throws MojoExecutionException {
+		return this.jgit.fingerprints(project, projects, log);
+	}
+	
+	/**
+	 * Same as JGit fetch of {@link GitDetector}: only the remote branch to compare with, without tags, skipped within
+	 * fetch interval, and not fatal when it fails.
+	 */
+	private void fetch(File directory, ChangeDetectionRequest request, Log log) throws IOException {
+		if (!request.isFetch()) {
+			return;
+		}
+		String branch = request.getRemoteBranch();
+		if (Constants.HEAD.equals(branch)) {
+			// Follows origin/HEAD to the branch it points to
+			final String head = runOrNull(directory, "symbolic-ref", "-q", REMOTE_REFS + Constants.HEAD);
+			if (head != null && head.startsWith(REMOTE_REFS)) {
+				branch = head.substring(REMOTE_REFS.length());
+			}
+		}
+		final String source = Constants.HEAD.equals(branch)
+				? Constants.HEAD
+				: Constants.R_HEADS + branch;
+		final String destination = REMOTE_REFS + branch;
+		if (request.getFetchInterval() > 0) {
+			final long age = System.currentTimeMillis() - this.lastFetch(directory, destination);
+			if (age < TimeUnit.SECONDS.toMillis(request.getFetchInterval())) {
+				log.info("Fetch         : skipped, " + destination + " fetched " + age / 1000 + " s ago");
+				return;
+			}
+		}
+		try {
+			run(directory, "fetch", "--no-tags", "--no-recurse-submodules", "--quiet", REMOTE,
+				"+" + source + ":" + destination);
+			log.info("Fetch         : " + source + " -> " + destination);
+		} catch (final IOException e) {
+			log.warn("Could not fetch " + source + " from " + REMOTE + ", using last fetched state.", e);
+		}
+	}
+	
+	/**
+	 * Last time given remote-tracking ref was fetched, from its reflog or FETCH_HEAD.
+	 * 
+	 * @return Epoch milliseconds, 0 if unknown
+	 */
+	private long lastFetch(File directory, String trackingRef) throws IOException {
+		long lastFetch = 0;
+		final String reflog = runOrNull(directory, "log", "-g", "-n", "1", "--format=%ct", trackingRef, "--");
+		if (reflog != null && !reflog.isEmpty()) {
+			lastFetch = TimeUnit.SECONDS.toMillis(Long.parseLong(reflog));
+		}
+		final String id = runOrNull(directory, "rev-parse", "-q", "--verify", trackingRef);
+		final Path fetchHead = directory.toPath().resolve(run(directory, "rev-parse", "--git-path", "FETCH_HEAD"));
+		if (id != null && Files.isRegularFile(fetchHead)
+				&& new String(Files.readAllBytes(fetchHead), StandardCharsets.UTF_8).contains(id)) {
+			lastFetch = Math.max(lastFetch, Files.getLastModifiedTime(fetchHead).toMillis());
+		}
+		return lastFetch;
+	}
+	
+	/**
+	 * Attributes records of {@code git diff --raw -z}, each a header and a path:
+	 *
+	 * <pre>
+	 * :oldMode newMode oldId newId status NUL path NUL
+	 * </pre>
+	 *
+	 * @return True if detection is done, i.e. every module has a diff in first change only mode
+	 */
+	private boolean readDiffs(
+			File directory,
+			List<String> args,
+			ModuleIndex moduleIndex,
+			ChangeDetectionRequest request,
+			AtomicInteger unchangedModules) throws IOException {
+		try (final GitProcess git = new GitProcess(directory, args.toArray(new String[0]))) {
+			final NulReader reader = new NulReader(git.output());
+			String header;
+			while ((header = reader.next()) != null) {
+				final String path = reader.next();
+				if (path == null || header.isEmpty() || header.charAt(0) != ':') {
+					throw new IOException("Unexpected output of " + GIT + " diff: " + header);
+				}
+				final int oldModeEnd = header.indexOf(' ');
+				final int newModeEnd = header.indexOf(' ', oldModeEnd + 1);
+				final FileMode oldMode = FileMode.fromBits(Integer.parseInt(header.substring(1, oldModeEnd), 8));
+				final FileMode newMode = FileMode
+					.fromBits(Integer.parseInt(header.substring(oldModeEnd + 1, newModeEnd), 8));
+				if (this.attribute(path, oldMode, newMode, moduleIndex, request, unchangedModules)) {
+					return true;
+				}
+			}
+			git.await();
+			return false;
+		}
+	}
+	
+	/**
+	 * Attributes NUL separated paths of untracked files as added.
+	 */
+	private void readUntracked(
+			File directory,
+			List<String> args,
+			ModuleIndex moduleIndex,
+			ChangeDetectionRequest request,
+			AtomicInteger unchangedModules) throws IOException {
+		try (final GitProcess git = new GitProcess(directory, args.toArray(new String[0]))) {
+			final NulReader reader = new NulReader(git.output());
+			String path;
+			while ((path = reader.next()) != null) {
+				if (this.attribute(path, FileMode.MISSING, FileMode.REGULAR_FILE, moduleIndex, request,
+					unchangedModules)) {
+					return;
+				}
+			}
+			git.await();
+		}
+	}
+	
+	/**
+	 * @return True if every module has a diff in first change only mode, so that git can be stopped
+	 */
+	private boolean attribute(
+			String path,
+			FileMode oldMode,
+			FileMode newMode,
+			ModuleIndex moduleIndex,
+			ChangeDetectionRequest request,
+			AtomicInteger unchangedModules) {
+		if (!request.isFirstChangeOnly()) {
+			this.jgit.parseDiff(path, oldMode, newMode, moduleIndex, request.getFirstChangeListener());
+			return false;
+		}
+		if (moduleIndex.find(path).hasDiff()) {
+			return false;
+		}
+		this.jgit.parseDiff(path, oldMode, newMode, moduleIndex, request.getFirstChangeListener());
+		return unchangedModules.decrementAndGet() == 0;
+	}
+	
+	/**
+	 * Runs git and returns its trimmed output.
+	 *
+	 * @throws IOException If git could not be run or exits with an error
+	 */
+	private static String run(File directory, String... args) throws IOException {
+		try (final GitProcess git = new GitProcess(directory, args)) {
+			final ByteArrayOutputStream output = new ByteArrayOutputStream();
+			copy(git.output(), output);
+			git.await();
+			return new String(output.toByteArray(), StandardCharsets.UTF_8).trim();
+		}
+	}
+	
+	/**
+	 * @return Trimmed output of git, null if it exits with an error
+	 */
+	private static String runOrNull(File directory, String... args) throws InterruptedIOException {
+		try {
+			return run(directory, args);
+		} catch (final InterruptedIOException e) {
+			throw e;
+		} catch (final IOException e) {
+			return null;
+		}
+	}
+	
+	private static void copy(InputStream input, ByteArrayOutputStream output) throws IOException {
+		final byte[] buffer = new byte[8192];
+		int read;
+		while ((read = input.read(buffer)) >= 0) {
+			output.write(buffer, 0, read);
+		}
+	}
+	
+	/**
+	 * Running git process. Standard error is collected in background for error messages. Closing a process that has
+	 * not exited kills it.
+	 */
+	private static final class GitProcess implements Closeable {
+		
+		private final String command;
+		private final Process process;
+		private final ByteArrayOutputStream error = new ByteArrayOutputStream();
+		private final Thread errorReader;
+		
+		private GitProcess(File directory, String... args) throws IOException {
+			final List<String> command = new ArrayList<>(args.length + 1);
+			command.add(GIT);
+			command.addAll(Arrays.asList(args));
+			this.command = String.join(" ", command);
+			final ProcessBuilder builder = new ProcessBuilder(command).directory(directory);
+			// Read only commands must not refresh index in the background of a build
+			builder.environment().put("GIT_OPTIONAL_LOCKS", "0");
+			this.process = builder.start();
+			this.process.getOutputStream().close();
+			this.errorReader = new Thread(() -> {
+				try {
+					copy(this.process.getErrorStream(), this.error);
+				} catch (final IOException e) {
+					// Process is gone, error message is incomplete
+				}
+			}, "updated-git-stderr");
+			this.errorReader.setDaemon(true);
+			this.errorReader.start();
+		}
+		
+		private InputStream output() {
+			return this.process.getInputStream();
+		}
+		
+		/**
+		 * Waits for git to exit.
+		 *
+		 * @throws IOException If git exits with an error
+		 */
+		private void await() throws IOException {
+			final int exitCode;
+			try {
+				exitCode = this.process.waitFor();
+				this.errorReader.join();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for " + this.command);
+			}
+			if (exitCode != 0) {
+				throw new IOException(this.command + " exited with " + exitCode + ": "
+						+ new String(this.error.toByteArray(), StandardCharsets.UTF_8).trim());
+			}
+		}
+		
+		@Override
+		public void close() {
+			if (this.process.isAlive()) {
+				this.process.destroy();
+			}
+		}
+	}
+	
+	/**
+	 * Reads NUL terminated UTF-8 fields from a stream.
+	 */
+	private static final class NulReader {
+		
+		private final InputStream input;
+		private byte[] field = new byte[256];
+		
+		private NulReader(InputStream input) {
+			this.input = new BufferedInputStream(input, 1 << 16);
+		}
+		
+		/**
+		 * @return Next field, null at end of stream
+		 */
+		private String next() throws IOException {
+			int length = 0;
+			int read;
+			while ((read = this.input.read()) > 0) {
+				if (length == this.field.length) {
+					this.field = Arrays.copyOf(this.field, length << 1);
+				}
+				this.field[length++] = (byte) read;
+			}
+			if (read < 0 && length == 0) {
+				return null;
+			}
+			return new String(this.field, 0, length, StandardCharsets.UTF_8);
+		}
+	}
+	
+	/**
+	 * Working tree that git runs in. Nothing to close, processes are closed when they are read.
+	 */
+	static final class WorkTree implements Closeable {
+		
+		private final File directory;
+		
+		private WorkTree(File directory) {
+			this.directory = directory;
+		}
+		
+		@Override
+		public void close() {
+			// Nothing to release
+		}
+	}
+}
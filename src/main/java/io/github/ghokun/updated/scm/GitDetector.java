@@ -24,15 +24,26 @@
 
 package io.github.ghokun.updated.scm;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.Collection;
-import java.util.Deque;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
@@ -40,12 +51,38 @@ import org.apache.maven.project.MavenProject;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.diff.DiffEntry;
-import org.eclipse.jgit.diff.DiffEntry.ChangeType;
+import org.eclipse.jgit.dircache.DirCacheIterator;
 import org.eclipse.jgit.errors.RevisionSyntaxException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.CoreConfig.EolStreamType;
+import org.eclipse.jgit.lib.FileMode;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
 import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.ReflogEntry;
+import org.eclipse.jgit.lib.ReflogReader;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.SubmoduleConfig.FetchRecurseSubmodulesMode;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.transport.FetchResult;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.transport.TrackingRefUpdate;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.TreeWalk.OperationType;
+import org.eclipse.jgit.treewalk.WorkingTreeIterator;
+import org.eclipse.jgit.treewalk.WorkingTreeIterator.MetadataDiff;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import io.github.ghokun.updated.enumeration.ChangeScope;
+import io.github.ghokun.updated.enumeration.ComparisonBase;
+import io.github.ghokun.updated.metrics.Metrics;
 
 /**
  * Source code change detector implementation for Git. Assumes a ${baseDir}/.git directory exists. Uses JGit.
@@ -53,96 +90,560 @@ import org.eclipse.jgit.treewalk.CanonicalTreeParser;
  * @author ghokun
  * @since 1.0.0
  */
-public final class GitDetector implements SourceCodeChangeDetector {
+public final class GitDetector extends AbstractGitDetector<GitDetector.JGitRepository> {
+	
+	private static final int OLD_TREE = 0;
+	private static final int NEW_TREE = 1;
+	private static final int INDEX_TREE = 1;
+	private static final int WORKING_TREE = 2;
 	
 	@Override
-	public SourceCodeChanges detectChanges(
-			MavenProject project,
-			Set<MavenProject> projects,
-			Log log,
-			String remoteBranch) throws MojoExecutionException {
-		try (final Git git = Git.open(new File(project.getBasedir().getPath() + "/.git"));
-				final Repository repository = git.getRepository();
-				final ObjectReader reader = repository.newObjectReader();) {
-			
-			// Fetch latest
-			git.fetch();
-			
-			// Get local tree
-			final String localBranch = repository.getBranch();
-			final ObjectId localHead = repository.resolve("refs/heads/" + localBranch + "^{tree}");
-			final CanonicalTreeParser localTree = new CanonicalTreeParser();
-			localTree.reset(reader, localHead);
-			log.info("Local Branch  : " + localBranch);
-			log.info("Local Head    : " + localHead.toString());
-			
-			// Get remote tree
-			final ObjectId remoteHead = repository.resolve("refs/remotes/origin/" + remoteBranch + "^{tree}");
-			final CanonicalTreeParser remoteTree = new CanonicalTreeParser();
-			remoteTree.reset(reader, remoteHead);
-			log.info("Remote Branch : " + remoteBranch);
-			log.info("Remote Head   : " + remoteHead.toString());
+	JGitRepository open(MavenProject project) throws IOException {
+		return new JGitRepository(Git.open(new File(project.getBasedir().getPath() + "/.git")));
+	}
+	
+	@Override
+	void fetch(JGitRepository repository, ChangeDetectionRequest request, Log log) throws IOException {
+		this.fetch(repository.git, repository.repository, request, log);
+	}
+	
+	@Override
+	Trees resolve(JGitRepository git, ChangeDetectionRequest request, Log log)
+			throws IOException, MojoExecutionException {
+		final Repository repository = git.repository;
+		// Get local tree
+		final String localBranch = repository.getBranch();
+		final ObjectId localHead = repository.resolve(Constants.R_HEADS + localBranch + "^{tree}");
+		log.info("Local Branch  : " + localBranch);
+		if (localHead == null) {
+			throw new MojoExecutionException("Local branch " + localBranch + " has no commits");
+		}
+		log.info("Local Head    : " + localHead.toString());
+		if (request.getChangeScope() != ChangeScope.COMMITTED) {
+			log.info("Local Scope   : " + request.getChangeScope());
+		}
+		
+		// Get remote tree
+		final String remoteBranch = request.getRemoteBranch();
+		log.info("Remote Branch : " + remoteBranch);
+		final ObjectId remoteCommit = repository.resolve(REMOTE_REFS + remoteBranch + "^{commit}");
+		if (remoteCommit == null) {
+			throw missingRemoteBranch(remoteBranch);
+		}
+		final ObjectId remoteHead;
+		if (request.getComparisonBase() == ComparisonBase.MERGE_BASE) {
+			remoteHead = this
+				.mergeBaseTree(git.reader, repository.resolve(Constants.R_HEADS + localBranch), remoteCommit, log);
+		} else {
+			remoteHead = repository.resolve(REMOTE_REFS + remoteBranch + "^{tree}");
+		}
+		log.info("Remote Head   : " + remoteHead.toString());
+		return new Trees(localHead, remoteHead);
+	}
+	
+	@Override
+	void diff(JGitRepository git, Trees trees, ModuleIndex moduleIndex, ChangeDetectionRequest request)
+			throws IOException {
+		final Repository repository = git.repository;
+		if (request.getChangeScope() == ChangeScope.WORKING_TREE) {
+			this.walkWorkingTree(repository, git.reader, trees.remote, moduleIndex, request);
+		} else if (request.getChangeScope() == ChangeScope.COMMITTED && request.getDiffThreads() != 1) {
+			this.walkDiffsInParallel(repository, trees.remote, trees.local, moduleIndex, request);
+		} else {
+			try (final TreeWalk walk = new TreeWalk(repository, git.reader)) {
+				walk.addTree(trees.remote);
+				if (request.getChangeScope() == ChangeScope.INDEX) {
+					// Cache tree extension of index lets unchanged directories be skipped
+					walk.addTree(new DirCacheIterator(repository.readDirCache()));
+				} else {
+					walk.addTree(trees.local);
+				}
+				walk.setFilter(TreeFilter.ANY_DIFF);
+				this.walkDiffs(walk, moduleIndex, request);
+			}
+		}
+	}
+	
+	@Override
+	public Map<String, String> fingerprints(MavenProject project, Set<MavenProject> projects, Log log)
+			throws MojoExecutionException {
+		try (final JGitRepository git = this.open(project)) {
+			final Repository repository = git.repository;
+			final ObjectId head = repository.resolve(Constants.HEAD + "^{tree}");
+			if (head == null) {
+				throw new MojoExecutionException("Local branch " + repository.getBranch() + " has no commits");
+			}
+			log.info("Local Head    : " + head.toString());
+			final Map<String, String> fingerprints = new GitFingerprints(git.reader, head,
+				repository.getWorkTree().toPath().toAbsolutePath().normalize()).compute(projects);
 			
-			// Diff
-			final List<DiffEntry> diffs = git
-				.diff()
-				.setShowNameAndStatusOnly(true)
-				.setOldTree(remoteTree)
-				.setNewTree(localTree)
+			// Committed content of a module with local changes is not what is built
+			final SourceCodeChanges moduleTree = generateTree(project, projects);
+			this
+				.walkWorkingTree(repository,
+					git.reader,
+					head,
+					new ModuleIndex(moduleTree),
+					new ChangeDetectionRequest().setFirstChangeOnly(true));
+			for (final SourceCodeChanges module : moduleTree) {
+				if (module.hasDiff()) {
+					fingerprints.replace(module.getGroupId() + ":" + module.getArtifactId(), UNCOMMITTED);
+				}
+			}
+			return fingerprints;
+		} catch (final RevisionSyntaxException | IOException e) {
+			throw new MojoExecutionException("An error occurred while computing fingerprints", e);
+		}
+	}
+	
+	/**
+	 * Tree of the best common ancestor of given commits. Only commit headers are parsed and the walk stops at the
+	 * first merge base, so memory is bounded by commits between the tips and their merge base. Falls back to remote
+	 * tree when commits share no history.
+	 */
+	private ObjectId mergeBaseTree(ObjectReader reader, ObjectId localCommit, ObjectId remoteCommit, Log log)
+			throws IOException {
+		try (final RevWalk walk = new RevWalk(reader)) {
+			walk.setRetainBody(false);
+			walk.setRevFilter(RevFilter.MERGE_BASE);
+			final RevCommit remote = walk.parseCommit(remoteCommit);
+			walk.markStart(walk.parseCommit(localCommit));
+			walk.markStart(remote);
+			final RevCommit mergeBase = walk.next();
+			if (mergeBase == null) {
+				log.warn("Local and remote branches have no common history, comparing to remote branch.");
+				return remote.getTree().copy();
+			}
+			log.info("Merge Base    : " + mergeBase.name());
+			return mergeBase.getTree().copy();
+		}
+	}
+	
+	/**
+	 * Fetches remote branch with JGit, see {@link AbstractGitDetector#fetch}.
+	 */
+	private void fetch(Git git, Repository repository, ChangeDetectionRequest request, Log log) throws IOException {
+		if (!request.isFetch()) {
+			return;
+		}
+		final String branch = this.remoteBranchName(repository, request.getRemoteBranch());
+		final String source = Constants.HEAD.equals(branch)
+				? Constants.HEAD
+				: Constants.R_HEADS + branch;
+		final String destination = REMOTE_REFS + branch;
+		if (request.getFetchInterval() > 0) {
+			final long age = System.currentTimeMillis() - this.lastFetch(repository, destination);
+			if (age < TimeUnit.SECONDS.toMillis(request.getFetchInterval())) {
+				log.info("Fetch         : skipped, " + destination + " fetched " + age / 1000 + " s ago");
+				return;
+			}
+		}
+		try {
+			final FetchResult result = git
+				.fetch()
+				.setRemote(REMOTE)
+				.setRefSpecs(new RefSpec("+" + source + ":" + destination))
+				.setTagOpt(TagOpt.NO_TAGS)
+				.setRemoveDeletedRefs(false)
+				.setRecurseSubmodules(FetchRecurseSubmodulesMode.NO)
 				.call();
-			
-			return this.parseDiffs(diffs, project, projects);
-			
-		} catch (final RevisionSyntaxException | IOException | GitAPIException e) {
-			throw new MojoExecutionException("An error occurred while detecting source code changes", e);
+			final TrackingRefUpdate update = result.getTrackingRefUpdate(destination);
+			log
+				.info("Fetch         : " + source + " -> " + destination + " "
+						+ (update != null
+								? update.getResult()
+								: "up to date"));
+		} catch (final GitAPIException e) {
+			log.warn("Could not fetch " + source + " from " + REMOTE + ", using last fetched state.", e);
+		}
+	}
+	
+	/**
+	 * Follows origin/HEAD to the branch it points to, so that a single branch is fetched. HEAD of remote is fetched
+	 * when origin/HEAD is missing or not symbolic.
+	 */
+	private String remoteBranchName(Repository repository, String remoteBranch) throws IOException {
+		if (Constants.HEAD.equals(remoteBranch)) {
+			final Ref head = repository.exactRef(REMOTE_REFS + Constants.HEAD);
+			if (head != null && head.isSymbolic() && head.getTarget().getName().startsWith(REMOTE_REFS)) {
+				return head.getTarget().getName().substring(REMOTE_REFS.length());
+			}
+		}
+		return remoteBranch;
+	}
+	
+	/**
+	 * Last time given remote-tracking ref was fetched: its latest reflog entry, or FETCH_HEAD if that lists the ref's
+	 * current id, since fetches that bring no new commits do not write reflog.
+	 * 
+	 * @return Epoch milliseconds, 0 if unknown
+	 */
+	private long lastFetch(Repository repository, String trackingRef) throws IOException {
+		long lastFetch = 0;
+		final ReflogReader reflog = repository.getReflogReader(trackingRef);
+		final ReflogEntry entry = reflog != null
+				? reflog.getLastEntry()
+				: null;
+		if (entry != null) {
+			lastFetch = entry.getWho().getWhen().getTime();
+		}
+		final Ref ref = repository.exactRef(trackingRef);
+		final Path fetchHead = repository.getDirectory().toPath().resolve("FETCH_HEAD");
+		if (ref != null && ref.getObjectId() != null && Files.isRegularFile(fetchHead)
+				&& new String(Files.readAllBytes(fetchHead), StandardCharsets.UTF_8)
+					.contains(ref.getObjectId().name())) {
+			lastFetch = Math.max(lastFetch, Files.getLastModifiedTime(fetchHead).toMillis());
+		}
+		return lastFetch;
+	}
+	
+	/**
+	 * Walks differing entries of given non-recursive walk. Subtrees with equal ids on both sides are never visited.
+	 * When firstChangeOnly is set, a subtree is skipped once its owner module has a diff unless it contains other
+	 * modules, and the walk ends when every module has a diff.
+	 */
+	private void walkDiffs(TreeWalk walk, ModuleIndex moduleIndex, ChangeDetectionRequest request) throws IOException {
+		this.walkDiffs(walk, moduleIndex, request, new AtomicInteger(moduleIndex.size()), subtree -> false);
+	}
+	
+	/**
+	 * Same as {@link #walkDiffs(TreeWalk, ModuleIndex, ChangeDetectionRequest)}, but subtrees accepted by split are
+	 * neither entered nor pruned. Unchanged modules are counted across all walks sharing the counter.
+	 */
+	private void walkDiffs(
+			TreeWalk walk,
+			ModuleIndex moduleIndex,
+			ChangeDetectionRequest request,
+			AtomicInteger unchangedModules,
+			Predicate<TreeWalk> split) throws IOException {
+		final boolean firstChangeOnly = request.isFirstChangeOnly();
+		final Consumer<SourceCodeChanges> listener = request.getFirstChangeListener();
+		long attributeNanos = 0;
+		try {
+			while (walk.next()) {
+				final String path = walk.getPathString();
+				if (walk.isSubtree() && split.test(walk)) {
+					continue;
+				}
+				if (!firstChangeOnly) {
+					if (walk.isSubtree()) {
+						walk.enterSubtree();
+					} else {
+						final long start = System.nanoTime();
+						this.parseDiff(walk, moduleIndex, listener);
+						attributeNanos += System.nanoTime() - start;
+					}
+					continue;
+				}
+				if (unchangedModules.get() == 0) {
+					return;
+				}
+				final long start = System.nanoTime();
+				final SourceCodeChanges owner = moduleIndex.find(path);
+				attributeNanos += System.nanoTime() - start;
+				if (walk.isSubtree()) {
+					if (!owner.hasDiff() || moduleIndex.containsModules(path)) {
+						walk.enterSubtree();
+					}
+				} else if (!owner.hasDiff()) {
+					final long parseStart = System.nanoTime();
+					this.parseDiff(walk, moduleIndex, listener);
+					attributeNanos += System.nanoTime() - parseStart;
+					if (unchangedModules.decrementAndGet() == 0) {
+						return;
+					}
+				}
+			}
+		} finally {
+			request.getMetrics().record("scm.attribute", attributeNanos);
+		}
+	}
+	
+	/**
+	 * Diffs given trees on a fork/join pool, one task per module directory that is a tree on both sides. A task never
+	 * enters directories of other tasks, so every module is written by exactly one task and results equal those of
+	 * {@link #walkDiffs(TreeWalk, ModuleIndex, ChangeDetectionRequest)}, in the same order per module.
+	 */
+	private void walkDiffsInParallel(
+			Repository repository,
+			ObjectId remoteTree,
+			ObjectId localTree,
+			ModuleIndex moduleIndex,
+			ChangeDetectionRequest request) throws IOException {
+		final ForkJoinPool pool = new ForkJoinPool(request.getDiffThreads() > 0
+				? request.getDiffThreads()
+				: Runtime.getRuntime().availableProcessors());
+		try {
+			pool
+				.invoke(new SubtreeDiff(repository, null, remoteTree, localTree, moduleIndex, request,
+					new AtomicInteger(moduleIndex.size())));
+		} catch (final UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			pool.shutdown();
 		}
 	}
 	
-	private SourceCodeChanges parseDiffs(
-			Collection<DiffEntry> diffs,
-			MavenProject project,
-			Set<MavenProject> projects) {
+	/**
+	 * Diff of a module directory with its own object reader. Module directories below it are forked.
+	 */
+	@SuppressWarnings("serial")
+	private final class SubtreeDiff extends RecursiveAction {
 		
-		final Map<String, MavenProject> mapOfProjects = new HashMap<>();
-		mapOfProjects.put(project.getArtifactId(), project);
-		if (projects != null && !projects.isEmpty()) {
-			projects.forEach(p -> mapOfProjects.put(p.getArtifactId(), p));
+		private final Repository repository;
+		private final byte[] prefix;
+		private final ObjectId remoteTree;
+		private final ObjectId localTree;
+		private final ModuleIndex moduleIndex;
+		private final ChangeDetectionRequest request;
+		private final AtomicInteger unchangedModules;
+		
+		private SubtreeDiff(
+				Repository repository,
+				byte[] prefix,
+				ObjectId remoteTree,
+				ObjectId localTree,
+				ModuleIndex moduleIndex,
+				ChangeDetectionRequest request,
+				AtomicInteger unchangedModules) {
+			this.repository = repository;
+			this.prefix = prefix;
+			this.remoteTree = remoteTree;
+			this.localTree = localTree;
+			this.moduleIndex = moduleIndex;
+			this.request = request;
+			this.unchangedModules = unchangedModules;
 		}
-		final SourceCodeChanges moduleTree = this.generateTree(project, mapOfProjects);
 		
-		for (final DiffEntry diff : diffs) {
-			
-			// new : ADD, COPY, RENAME
-			if (diff.getChangeType().equals(ChangeType.ADD) || diff.getChangeType().equals(ChangeType.COPY)
-					|| diff.getChangeType().equals(ChangeType.RENAME)) {
-				final SourceCodeChanges module = this
-					.findModuleOfDiff(moduleTree, project.getBasedir().getPath(), this.pathToDeque(diff.getNewPath()));
-				module
-					.getDiffs()
-					.add(new SourceCodeDiff(DiffType.valueOf(diff.getChangeType().name()),
-						diff.getOldPath(),
-						diff.getNewPath()));
+		@Override
+		protected void compute() {
+			final List<SubtreeDiff> forks = new ArrayList<>();
+			try (final ObjectReader reader = this.repository.newObjectReader();
+					final TreeWalk walk = new TreeWalk(this.repository, reader)) {
+				walk.addTree(new CanonicalTreeParser(this.prefix, reader, this.remoteTree));
+				walk.addTree(new CanonicalTreeParser(this.prefix, reader, this.localTree));
+				walk.setFilter(TreeFilter.ANY_DIFF);
+				GitDetector.this.walkDiffs(walk, this.moduleIndex, this.request, this.unchangedModules, subtree -> {
+					if (subtree.getFileMode(OLD_TREE) != FileMode.TREE || subtree.getFileMode(NEW_TREE) != FileMode.TREE
+							|| !this.moduleIndex.isModule(subtree.getPathString())) {
+						return false;
+					}
+					final SubtreeDiff fork = new SubtreeDiff(this.repository, subtree.getRawPath(),
+						subtree.getObjectId(OLD_TREE), subtree.getObjectId(NEW_TREE), this.moduleIndex, this.request,
+						this.unchangedModules);
+					fork.fork();
+					forks.add(fork);
+					return true;
+				});
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
 			}
-			
-			// old : COPY, DELETE, MODIFY, RENAME
-			if (diff.getChangeType().equals(ChangeType.COPY) || diff.getChangeType().equals(ChangeType.DELETE)
-					|| diff.getChangeType().equals(ChangeType.MODIFY)
-					|| diff.getChangeType().equals(ChangeType.RENAME)) {
-				final SourceCodeChanges module = this
-					.findModuleOfDiff(moduleTree, project.getBasedir().getPath(), this.pathToDeque(diff.getOldPath()));
-				module
-					.getDiffs()
-					.add(new SourceCodeDiff(DiffType.valueOf(diff.getChangeType().name()),
-						diff.getOldPath(),
-						diff.getNewPath()));
+			for (final SubtreeDiff fork : forks) {
+				fork.join();
 			}
 		}
+	}
+	
+	/**
+	 * Walks remote tree, index and working tree together. Working tree files that match their index entry by stat data
+	 * take the id of the entry; other files are hashed afterwards in parallel, unless they need clean filters or line
+	 * ending conversion, which are applied by JGit during the walk. Untracked files count as added unless ignored.
+	 * First change only pruning works as in {@link #walkDiffs}, with changes known before hashing.
+	 */
+	private void walkWorkingTree(
+			Repository repository,
+			ObjectReader reader,
+			ObjectId remoteHead,
+			ModuleIndex moduleIndex,
+			ChangeDetectionRequest request) throws IOException {
+		final boolean firstChangeOnly = request.isFirstChangeOnly();
+		final Consumer<SourceCodeChanges> listener = request.getFirstChangeListener();
+		final List<WorkingTreeFile> unhashed = new ArrayList<>();
+		try (final TreeWalk walk = new TreeWalk(repository, reader)) {
+			walk.setOperationType(OperationType.CHECKIN_OP);
+			if (request.getDirectories() != null) {
+				walk.setFilter(PathFilterGroup.createFromStrings(request.getDirectories()));
+			}
+			walk.addTree(remoteHead);
+			walk.addTree(new DirCacheIterator(repository.readDirCache()));
+			final FileTreeIterator workingTree = new FileTreeIterator(repository);
+			workingTree.setDirCacheIterator(walk, INDEX_TREE);
+			walk.addTree(workingTree);
+			while (walk.next()) {
+				final String path = walk.getPathString();
+				final FileMode remoteMode = walk.getFileMode(OLD_TREE);
+				final DirCacheIterator index = walk.getTree(INDEX_TREE, DirCacheIterator.class);
+				final WorkingTreeIterator file = walk.getTree(WORKING_TREE, WorkingTreeIterator.class);
+				final boolean untracked = remoteMode == FileMode.MISSING && index == null;
+				if (firstChangeOnly && moduleIndex.find(path).hasDiff()
+						&& !(walk.isSubtree() && moduleIndex.containsModules(path))) {
+					continue;
+				}
+				if (walk.isSubtree()) {
+					if (!(untracked && file != null && file.isEntryIgnored())) {
+						walk.enterSubtree();
+					}
+					continue;
+				}
+				
+				FileMode localMode = FileMode.MISSING;
+				ObjectId localId = null;
+				if (file != null && !(index == null && file.isEntryIgnored())) {
+					localMode = file.getEntryFileMode();
+					if (index != null && file.compareMetadata(index.getDirCacheEntry()) == MetadataDiff.EQUAL) {
+						localId = index.getEntryObjectId();
+					} else if (remoteMode != FileMode.MISSING) {
+						if (localMode == FileMode.REGULAR_FILE || localMode == FileMode.EXECUTABLE_FILE) {
+							if (walk.getEolStreamType(OperationType.CHECKIN_OP) == EolStreamType.DIRECT
+									&& walk.getFilterCommand(Constants.ATTR_FILTER_TYPE_CLEAN) == null) {
+								unhashed
+									.add(new WorkingTreeFile(path, remoteMode, walk.getObjectId(OLD_TREE), localMode,
+										((FileTreeIterator) file).getEntryFile()));
+								continue;
+							}
+						}
+						localId = file.getEntryObjectId();
+					}
+				} else if (index != null && file == null && walk.getFileMode(INDEX_TREE) == FileMode.GITLINK) {
+					// Submodules that are not checked out are not deleted
+					localMode = FileMode.GITLINK;
+					localId = index.getEntryObjectId();
+				}
+				
+				if (remoteMode == FileMode.MISSING && localMode == FileMode.MISSING
+						|| remoteMode == localMode && walk.getObjectId(OLD_TREE).equals(localId)) {
+					continue;
+				}
+				this.parseDiff(path, remoteMode, localMode, moduleIndex, listener);
+			}
+		}
+		
+		// Hash suspicious files on all cores, then attribute them in walk order
+		final Metrics.Timer hashTimer = request.getMetrics().start("scm.hash");
+		try {
+			unhashed.parallelStream().forEach(WorkingTreeFile::hash);
+		} catch (final UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			hashTimer.stop();
+		}
+		request.getMetrics().add("hashed files", unhashed.size());
+		for (final WorkingTreeFile file : unhashed) {
+			if (file.remoteMode != file.localMode || !file.remoteId.equals(file.localId)) {
+				this.parseDiff(file.path, file.remoteMode, file.localMode, moduleIndex, listener);
+			}
+		}
+	}
+	
+	/**
+	 * Working tree file whose content id is computed out of walk.
+	 */
+	private static final class WorkingTreeFile {
+		
+		private final String path;
+		private final FileMode remoteMode;
+		private final ObjectId remoteId;
+		private final FileMode localMode;
+		private final File file;
+		private ObjectId localId;
+		
+		private WorkingTreeFile(String path, FileMode remoteMode, ObjectId remoteId, FileMode localMode, File file) {
+			this.path = path;
+			this.remoteMode = remoteMode;
+			this.remoteId = remoteId;
+			this.localMode = localMode;
+			this.file = file;
+		}
+		
+		private void hash() {
+			try (final InputStream in = new FileInputStream(this.file)) {
+				this.localId = new ObjectInserter.Formatter().idFor(Constants.OBJ_BLOB, this.file.length(), in);
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+	
+	/**
+	 * Attributes current entry of given walk to its module. Change types conform to {@link DiffEntry#scan}, without
+	 * rename detection: an entry whose file type changes is reported as a delete and an add.
+	 */
+	private void parseDiff(TreeWalk walk, ModuleIndex moduleIndex, Consumer<SourceCodeChanges> listener) {
+		this
+			.parseDiff(walk.getPathString(),
+				walk.getFileMode(OLD_TREE),
+				walk.getFileMode(NEW_TREE),
+				moduleIndex,
+				listener);
+	}
+	
+	void parseDiff(
+			String path,
+			FileMode oldMode,
+			FileMode newMode,
+			ModuleIndex moduleIndex,
+			Consumer<SourceCodeChanges> listener) {
+		if (oldMode == FileMode.MISSING) {
+			this.addDiff(moduleIndex, listener, DiffType.ADD, DiffEntry.DEV_NULL, path);
+		} else if (newMode == FileMode.MISSING) {
+			this.addDiff(moduleIndex, listener, DiffType.DELETE, path, DiffEntry.DEV_NULL);
+		} else if (oldMode.getObjectType() != newMode.getObjectType()) {
+			this.addDiff(moduleIndex, listener, DiffType.DELETE, path, DiffEntry.DEV_NULL);
+			this.addDiff(moduleIndex, listener, DiffType.ADD, DiffEntry.DEV_NULL, path);
+		} else {
+			this.addDiff(moduleIndex, listener, DiffType.MODIFY, path, path);
+		}
+	}
+	
+	private void addDiff(
+			ModuleIndex moduleIndex,
+			Consumer<SourceCodeChanges> listener,
+			DiffType type,
+			String oldPath,
+			String newPath) {
+		// new : ADD, COPY, RENAME
+		SourceCodeChanges newModule = null;
+		if (type == DiffType.ADD || type == DiffType.COPY || type == DiffType.RENAME) {
+			newModule = moduleIndex.find(newPath);
+			this.addDiff(newModule, listener, type, oldPath, newPath);
+		}
 		
-		return moduleTree; // for now
+		// old : COPY, DELETE, MODIFY, RENAME
+		if (type == DiffType.COPY || type == DiffType.DELETE || type == DiffType.MODIFY || type == DiffType.RENAME) {
+			final SourceCodeChanges oldModule = moduleIndex.find(oldPath);
+			if (oldModule != newModule) {
+				this.addDiff(oldModule, listener, type, oldPath, newPath);
+			}
+		}
+	}
+	
+	private void addDiff(
+			SourceCodeChanges module,
+			Consumer<SourceCodeChanges> listener,
+			DiffType type,
+			String oldPath,
+			String newPath) {
+		final boolean firstChange = !module.hasDiff();
+		module.addDiff(type, oldPath, newPath);
+		if (firstChange) {
+			listener.accept(module);
+		}
+	}
+	
+	/**
+	 * Creates module tree of given reactor, without diffs. Shared by all detectors.
+	 */
+	static SourceCodeChanges generateTree(MavenProject project, Set<MavenProject> projects) {
+		final Map<String, MavenProject> mapOfProjects = new HashMap<>();
+		mapOfProjects.put(project.getArtifactId(), project);
+		if (projects != null && !projects.isEmpty()) {
+			projects.forEach(p -> mapOfProjects.put(p.getArtifactId(), p));
+		}
+		return generateTree(project, mapOfProjects);
 	}
 	
 	@SuppressWarnings("unchecked")
-	private SourceCodeChanges generateTree(MavenProject project, Map<String, MavenProject> mapOfProjects) {
+	private static SourceCodeChanges generateTree(MavenProject project, Map<String, MavenProject> mapOfProjects) {
 		final SourceCodeChanges tree = new SourceCodeChanges(project.getGroupId(),
 			project.getArtifactId(),
 			project.getVersion(),
@@ -151,34 +652,32 @@ public final class GitDetector implements SourceCodeChangeDetector {
 		if (project.getModules() != null && !project.getModules().isEmpty()) {
 			for (final String moduleArtifactId : (List<String>) project.getModules()) {
 				final MavenProject module = mapOfProjects.get(moduleArtifactId);
-				tree.getModules().add(this.generateTree(module, mapOfProjects));
+				tree.getModules().add(generateTree(module, mapOfProjects));
 			}
 		}
 		return tree;
 	}
 	
-	private SourceCodeChanges findModuleOfDiff(SourceCodeChanges tree, String rootPath, Deque<String> path) {
-		for (final SourceCodeChanges module : tree.getModules()) {
-			final String relativePath = module.getRelativePath(rootPath);
-			if (path.getFirst().equals(this.pathToDeque(relativePath).getFirst())) {
-				path.removeFirst();
-				return this.findModuleOfDiff(module, module.getPath(), path);
-			}
-		}
-		return tree;
-	}
-	
-	private Deque<String> pathToDeque(String path) {
-		if (path.substring(0, 1).equals("/")) {
-			path = path.replace("/", "");
+	/**
+	 * JGit repository of one detection and its object reader.
+	 */
+	static final class JGitRepository implements Closeable {
+		
+		private final Git git;
+		private final Repository repository;
+		private final ObjectReader reader;
+		
+		private JGitRepository(Git git) {
+			this.git = git;
+			this.repository = git.getRepository();
+			this.reader = this.repository.newObjectReader();
 		}
-		final String[] splitPath = path.split("/");
-		final Deque<String> pathQueue = new LinkedList<>();
-		for (final String split : splitPath) {
-			if (split != null && split.length() > 0) {
-				pathQueue.addLast(split);
-			}
+		
+		@Override
+		public void close() {
+			this.reader.close();
+			// Closes repository opened by Git.open
+			this.git.close();
 		}
-		return pathQueue;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.scm;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.model.Parent;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+/**
+ * Computes module fingerprints from a git tree. A module fingerprint hashes the tree id of module directory and the
+ * pom.xml blob ids of its parents in reactor. Directories of nested modules are left out of their parent's tree, so a
+ * change in a module does not change fingerprints of enclosing modules. Trees that contain no modules are not read at
+ * all, their ids are used as they are.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+final class GitFingerprints {
+	
+	private final ObjectReader reader;
+	private final ObjectId tree;
+	private final Path workTree;
+	private final Map<String, MavenProject> modulesByPath = new HashMap<>();
+	private final Set<String> moduleContainers = new HashSet<>();
+	private final Map<String, ObjectId> ownTrees = new HashMap<>();
+	
+	/**
+	 * @param reader Object reader of repository
+	 * @param tree Root tree to fingerprint
+	 * @param workTree Working tree directory of repository
+	 */
+	GitFingerprints(ObjectReader reader, ObjectId tree, Path workTree) {
+		this.reader = reader;
+		this.tree = tree;
+		this.workTree = workTree;
+	}
+	
+	/**
+	 * @param projects Reactor projects
+	 * @return Fingerprints by groupId:artifactId in given order. Modules missing in tree are left out.
+	 * @throws IOException If tree could not be read
+	 */
+	Map<String, String> compute(Set<MavenProject> projects) throws IOException {
+		for (final MavenProject project : projects) {
+			final String path = this.pathOf(project.getBasedir().toPath());
+			this.modulesByPath.put(path, project);
+			for (String parent = path; !parent.isEmpty();) {
+				parent = parent.lastIndexOf('/') >= 0
+						? parent.substring(0, parent.lastIndexOf('/'))
+						: "";
+				this.moduleContainers.add(parent);
+			}
+		}
+		final ObjectId root = this.ownTree(this.tree, "");
+		if (this.modulesByPath.containsKey("")) {
+			this.ownTrees.put("", root);
+		}
+		
+		final Map<String, MavenProject> projectsByCoords = new HashMap<>();
+		for (final MavenProject project : projects) {
+			projectsByCoords.put(project.getGroupId() + ":" + project.getArtifactId(), project);
+		}
+		final Map<String, String> fingerprints = new LinkedHashMap<>();
+		for (final MavenProject project : projects) {
+			final ObjectId ownTree = this.ownTrees.get(this.pathOf(project.getBasedir().toPath()));
+			if (ownTree == null) {
+				continue;
+			}
+			final StringBuilder input = new StringBuilder("tree ").append(ownTree.name()).append('\n');
+			for (Parent parent = project.getModel().getParent(); parent != null;) {
+				final MavenProject parentProject = projectsByCoords
+					.get(parent.getGroupId() + ":" + parent.getArtifactId());
+				input.append("parent ").append(parent.getId());
+				if (parentProject == null || !parentProject.getVersion().equals(parent.getVersion())) {
+					// Parent outside reactor is identified by its version
+					input.append('\n');
+					break;
+				}
+				final ObjectId pom = this.blobOf(this.pathOf(parentProject.getFile().toPath()));
+				input.append(' ').append(pom != null ? pom.name() : ObjectId.zeroId().name()).append('\n');
+				parent = parentProject.getModel().getParent();
+			}
+			fingerprints
+				.put(project.getGroupId() + ":" + project.getArtifactId(),
+					ObjectId.fromRaw(sha1().digest(input.toString().getBytes(StandardCharsets.UTF_8))).name());
+		}
+		return fingerprints;
+	}
+	
+	/**
+	 * Id of given tree without nested module directories. Records own trees of modules found on the way.
+	 */
+	private ObjectId ownTree(ObjectId tree, String path) throws IOException {
+		if (!this.moduleContainers.contains(path)) {
+			return tree;
+		}
+		final MessageDigest digest = sha1();
+		final CanonicalTreeParser parser = new CanonicalTreeParser(null, this.reader, tree);
+		for (; !parser.eof(); parser.next()) {
+			final String name = parser.getEntryPathString();
+			final String child = path.isEmpty()
+					? name
+					: path + "/" + name;
+			final FileMode mode = parser.getEntryFileMode();
+			ObjectId id = parser.getEntryObjectId();
+			if (mode == FileMode.TREE) {
+				id = this.ownTree(id, child);
+				if (this.modulesByPath.containsKey(child)) {
+					this.ownTrees.put(child, id);
+					continue;
+				}
+			}
+			digest.update((mode.toString() + ' ' + name + '\0').getBytes(StandardCharsets.UTF_8));
+			digest.update(id.name().getBytes(StandardCharsets.US_ASCII));
+		}
+		return ObjectId.fromRaw(digest.digest());
+	}
+	
+	private ObjectId blobOf(String path) throws IOException {
+		try (final TreeWalk walk = TreeWalk.forPath(this.reader, path, this.tree)) {
+			return walk != null
+					? walk.getObjectId(0)
+					: null;
+		}
+	}
+	
+	/**
+	 * Path relative to working tree with forward slashes, empty for working tree itself.
+	 */
+	private String pathOf(Path file) {
+		return this.workTree.relativize(file.toAbsolutePath().normalize()).toString().replace('\\', '/');
+	}
+	
+	private static MessageDigest sha1() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.scm;
+
+import java.io.File;
+
+/**
+ * Path segment trie of a {@link SourceCodeChanges} tree. Built once per detection, it maps a repository relative path
+ * to the deepest module containing it in O(path depth) without regular expressions or allocations.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+final class ModuleIndex {
+	
+	private final Node root = new Node();
+	private int size;
+	
+	/**
+	 * Creates index of given module tree. Module paths are relativized against path of the root module, and set as
+	 * diff roots of modules, see {@link SourceCodeChanges#setDiffRoot(String)}.
+	 *
+	 * @param moduleTree Root of module tree
+	 */
+	ModuleIndex(SourceCodeChanges moduleTree) {
+		this.root.module = moduleTree;
+		final String rootPath = normalize(moduleTree.getPath());
+		for (final SourceCodeChanges module : moduleTree) {
+			this.size++;
+			final String path = normalize(module.getPath());
+			if (module != moduleTree && path.startsWith(rootPath)) {
+				this.insert(path.substring(rootPath.length()), module);
+				module.setDiffRoot(path.substring(rootPath.length()));
+			}
+		}
+	}
+	
+	/**
+	 * @return Number of modules in index, including root
+	 */
+	int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Finds owner module of given path.
+	 *
+	 * @param path Repository relative path separated by '/'
+	 * @return Deepest module whose directory contains path, root module if none
+	 */
+	SourceCodeChanges find(String path) {
+		Node node = this.root;
+		SourceCodeChanges owner = this.root.module;
+		final int length = path.length();
+		int start = 0;
+		while (start < length) {
+			int end = path.indexOf('/', start);
+			if (end < 0) {
+				end = length;
+			}
+			if (end > start) {
+				node = node.child(path, start, end);
+				if (node == null) {
+					break;
+				}
+				if (node.module != null) {
+					owner = node.module;
+				}
+			}
+			start = end + 1;
+		}
+		return owner;
+	}
+	
+	/**
+	 * Checks whether any module lives in given directory or below it.
+	 *
+	 * @param path Repository relative directory path separated by '/'
+	 * @return True if a module directory starts with given path
+	 */
+	boolean containsModules(String path) {
+		Node node = this.root;
+		final int length = path.length();
+		int start = 0;
+		while (start < length) {
+			int end = path.indexOf('/', start);
+			if (end < 0) {
+				end = length;
+			}
+			if (end > start) {
+				node = node.child(path, start, end);
+				if (node == null) {
+					return false;
+				}
+			}
+			start = end + 1;
+		}
+		return true;
+	}
+	
+	/**
+	 * Checks whether given directory is a module directory, excluding root module.
+	 *
+	 * @param path Repository relative directory path separated by '/'
+	 * @return True if a module lives in exactly given directory
+	 */
+	boolean isModule(String path) {
+		Node node = this.root;
+		final int length = path.length();
+		int start = 0;
+		while (start < length) {
+			int end = path.indexOf('/', start);
+			if (end < 0) {
+				end = length;
+			}
+			if (end > start) {
+				node = node.child(path, start, end);
+				if (node == null) {
+					return false;
+				}
+			}
+			start = end + 1;
+		}
+		return node != this.root && node.module != null;
+	}
+	
+	private void insert(String relativePath, SourceCodeChanges module) {
+		Node node = this.root;
+		for (final String segment : relativePath.split("/")) {
+			if (!segment.isEmpty()) {
+				node = node.getOrAddChild(segment);
+			}
+		}
+		if (node != this.root) {
+			node.module = module;
+		}
+	}
+	
+	private static String normalize(String path) {
+		final String normalized = path.replace(File.separatorChar, '/');
+		return normalized.endsWith("/") ? normalized : normalized + "/";
+	}
+	
+	/**
+	 * Segment hash, same as {@link String#hashCode()} of the substring.
+	 */
+	private static int hash(String path, int start, int end) {
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + path.charAt(i);
+		}
+		return hash ^ hash >>> 16;
+	}
+	
+	/**
+	 * Trie node. Children are kept in an open addressing table so that lookups can match a region of the path without
+	 * creating substrings.
+	 */
+	private static final class Node {
+		
+		private SourceCodeChanges module;
+		private String[] segments = new String[2];
+		private Node[] children = new Node[2];
+		private int size;
+		
+		private Node child(String path, int start, int end) {
+			final int length = end - start;
+			final int mask = this.segments.length - 1;
+			for (int i = hash(path, start, end) & mask;; i = i + 1 & mask) {
+				final String segment = this.segments[i];
+				if (segment == null) {
+					return null;
+				}
+				if (segment.length() == length && path.regionMatches(start, segment, 0, length)) {
+					return this.children[i];
+				}
+			}
+		}
+		
+		private Node getOrAddChild(String segment) {
+			final Node existing = this.child(segment, 0, segment.length());
+			if (existing != null) {
+				return existing;
+			}
+			if (2 * (this.size + 1) > this.segments.length) {
+				this.resize();
+			}
+			final Node child = new Node();
+			this.put(segment, child);
+			return child;
+		}
+		
+		private void put(String segment, Node child) {
+			final int mask = this.segments.length - 1;
+			int i = hash(segment, 0, segment.length()) & mask;
+			while (this.segments[i] != null) {
+				i = i + 1 & mask;
+			}
+			this.segments[i] = segment;
+			this.children[i] = child;
+			this.size++;
+		}
+		
+		private void resize() {
+			final String[] oldSegments = this.segments;
+			final Node[] oldChildren = this.children;
+			this.segments = new String[oldSegments.length * 2];
+			this.children = new Node[oldChildren.length * 2];
+			this.size = 0;
+			for (int i = 0; i < oldSegments.length; i++) {
+				if (oldSegments[i] != null) {
+					this.put(oldSegments[i], oldChildren[i]);
+				}
+			}
+		}
+	}
+}
@@ -24,6 +24,7 @@
 
 package io.github.ghokun.updated.scm;
 
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.maven.plugin.MojoExecutionException;
@@ -40,13 +41,18 @@ import org.apache.maven.project.MavenProject;
 @FunctionalInterface
 public interface SourceCodeChangeDetector {
 	
+	/**
+	 * Fingerprint of a module with uncommitted changes.
+	 */
+	String UNCOMMITTED = "uncommitted";
+	
 	/**
 	 * Detect source code changes that is made locally.
 	 *
 	 * @param project Top level MavenProject to detect changes.
 	 * @param projects All modules including root.
 	 * @param log Maven plugin logger.
-	 * @param remoteBranch Remote branch name to compare local changes.
+	 * @param request Detection options.
 	 * @throws MojoExecutionException Throws exception
 	 * @return SourceCodeChanges tree with project information.
 	 */
@@ -54,5 +60,39 @@ public interface SourceCodeChangeDetector {
 			MavenProject project,
 			Set<MavenProject> projects,
 			Log log,
-			String remoteBranch) throws MojoExecutionException;
-}
\ No newline at end of file
+			ChangeDetectionRequest request) throws MojoExecutionException;
+	
+	/**
+	 * Detect source code changes that is made locally.
+	 *
+	 * @param project Top level MavenProject to detect changes.
+	 * @param projects All modules including root.
+	 * @param log Maven plugin logger.
+	 * @param remoteBranch Remote branch name to compare local changes.
+	 * @throws MojoExecutionException Throws exception
+	 * @return SourceCodeChanges tree with project information.
+	 */
+	default SourceCodeChanges detectChanges(
+			MavenProject project,
+			Set<MavenProject> projects,
+			Log log,
+			String remoteBranch) throws MojoExecutionException {
+		return this.detectChanges(project, projects, log, new ChangeDetectionRequest().setRemoteBranch(remoteBranch));
+	}
+	
+	/**
+	 * Fingerprints committed content of each module, so that unchanged modules can be recognized between builds.
+	 * Modules whose working tree differs from committed content, including untracked files, are fingerprinted as
+	 * {@link #UNCOMMITTED}.
+	 *
+	 * @param project Top level MavenProject.
+	 * @param projects All modules including root.
+	 * @param log Maven plugin logger.
+	 * @throws MojoExecutionException If not supported or fingerprints could not be computed
+	 * @return Fingerprints by groupId:artifactId, in order of given projects.
+	 */
+	default Map<String, String> fingerprints(MavenProject project, Set<MavenProject> projects, Log log)
+			throws MojoExecutionException {
+		throw new MojoExecutionException(this.getClass().getSimpleName() + " does not support fingerprints");
+	}
+}
@@ -48,6 +48,12 @@ public final class SourceCodeChangeDetectorFactory {
 		if (SourceCodeManagement.GIT.equals(scm)) {
 			return new GitDetector();
 		}
+		if (SourceCodeManagement.GIT_CLI.equals(scm)) {
+			return new GitCliDetector();
+		}
+		if (SourceCodeManagement.FILESYSTEM.equals(scm)) {
+			return new FileSystemDetector();
+		}
 		throw new IllegalArgumentException(
 			"Please provide an enum of type: " + SourceCodeManagement.class.getCanonicalName());
 	}
@@ -24,6 +24,7 @@
 
 package io.github.ghokun.updated.scm;
 
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -43,7 +44,7 @@ public class SourceCodeChanges implements Iterable<SourceCodeChanges> {
 	private final String artifactId;
 	private final String version;
 	private final String path;
-	private final Set<SourceCodeDiff> diffs = new HashSet<>();
+	private final CompactDiffs diffs = new CompactDiffs();
 	private final Set<SourceCodeChanges> modules = new HashSet<>();
 	
 	public SourceCodeChanges(String groupId, String artifactId, String version, String path) {
@@ -78,8 +79,85 @@ public class SourceCodeChanges implements Iterable<SourceCodeChanges> {
 		return this.path.replaceFirst(rootPath, "");
 	}
 	
+	/**
+	 * Live view of diff details. Adding to it adds a diff unless an equal one is listed, removing is not supported.
+	 *
+	 * @return Details of diffs, at most as many as configured by {@link ChangeDetectionRequest#setMaxChangeDetails}
+	 */
 	public Set<SourceCodeDiff> getDiffs() {
-		return this.diffs;
+		return new AbstractSet<SourceCodeDiff>() {
+			
+			@Override
+			public Iterator<SourceCodeDiff> iterator() {
+				return SourceCodeChanges.this.getDiffDetails().iterator();
+			}
+			
+			@Override
+			public int size() {
+				return SourceCodeChanges.this.getDiffDetails().size();
+			}
+			
+			@Override
+			public boolean add(SourceCodeDiff diff) {
+				return SourceCodeChanges.this.addDiff(diff.getType(), diff.getOldPath(), diff.getNewPath());
+			}
+		};
+	}
+	
+	/**
+	 * @return Details of diffs in order of addition, at most as many as configured by
+	 *         {@link ChangeDetectionRequest#setMaxChangeDetails}. Read-only.
+	 */
+	public List<SourceCodeDiff> getDiffDetails() {
+		return this.diffs.details();
+	}
+	
+	/**
+	 * Adds a diff to this module unless an equal one is listed. Counted even if its details are not kept, in which
+	 * case it cannot be compared to earlier diffs.
+	 *
+	 * @param type Diff type
+	 * @param oldPath Repository relative old path, {@code /dev/null} for added files
+	 * @param newPath Repository relative new path, {@code /dev/null} for deleted files
+	 * @return {@code false} if an equal diff is already listed
+	 */
+	public boolean addDiff(DiffType type, String oldPath, String newPath) {
+		return this.diffs.add(type, oldPath, newPath);
+	}
+	
+	/**
+	 * Adds diffs of another detection of this module, e.g. an earlier one whose files were not detected again.
+	 *
+	 * @param other Same module
+	 */
+	public void addDiffs(SourceCodeChanges other) {
+		final int[] detailed = new int[DiffType.values().length];
+		for (final SourceCodeDiff diff : other.getDiffDetails()) {
+			this.addDiff(diff.getType(), diff.getOldPath(), diff.getNewPath());
+			detailed[diff.getType().ordinal()]++;
+		}
+		for (final DiffType type : DiffType.values()) {
+			this.addDiffCount(type, other.diffCount(type) - detailed[type.ordinal()]);
+		}
+	}
+	
+	/**
+	 * Adds diffs that have no details.
+	 */
+	void addDiffCount(DiffType type, int count) {
+		this.diffs.addCount(type, count);
+	}
+	
+	/**
+	 * @param root Repository relative directory of this module, separated and terminated by '/'. Details are stored
+	 *        relative to it.
+	 */
+	void setDiffRoot(String root) {
+		this.diffs.setRoot(root);
+	}
+	
+	void setMaxDiffDetails(int maxDiffDetails) {
+		this.diffs.setMaxDetails(maxDiffDetails);
 	}
 	
 	public Set<SourceCodeChanges> getModules() {
@@ -87,11 +165,22 @@ public class SourceCodeChanges implements Iterable<SourceCodeChanges> {
 	}
 	
 	public boolean hasDiff() {
-		return !this.getDiffs().isEmpty();
+		return this.diffCount() > 0;
 	}
 	
+	/**
+	 * @return Exact number of diffs, including the ones without details
+	 */
 	public int diffCount() {
-		return this.getDiffs().size();
+		return this.diffs.count();
+	}
+	
+	/**
+	 * @param type Diff type
+	 * @return Exact number of diffs of given type
+	 */
+	public int diffCount(DiffType type) {
+		return this.diffs.count(type);
 	}
 	
 	@Override
@@ -121,17 +210,34 @@ public class SourceCodeChanges implements Iterable<SourceCodeChanges> {
 		if (sb == null) {
 			sb = new StringBuilder();
 		}
-		if (!this.diffs.isEmpty()) {
+		if (this.hasDiff()) {
 			sb
 				.append("------------------------------------------------------------------------")
 				.append(System.lineSeparator())
 				.append("Changes for ")
 				.append(this.groupId + ":" + this.artifactId + ":" + this.version)
+				.append(" (");
+			String separator = "";
+			for (final DiffType type : DiffType.values()) {
+				if (this.diffCount(type) > 0) {
+					sb.append(separator).append(type).append(" ").append(this.diffCount(type));
+					separator = ", ";
+				}
+			}
+			sb
+				.append(")")
 				.append(System.lineSeparator())
 				.append("------------------------------------------------------------------------");
-			for (final SourceCodeDiff diff : this.diffs) {
+			for (final SourceCodeDiff diff : this.getDiffDetails()) {
 				sb.append(System.lineSeparator()).append(diff.toString());
 			}
+			if (this.diffs.omitted() > 0) {
+				sb
+					.append(System.lineSeparator())
+					.append("... and ")
+					.append(this.diffs.omitted())
+					.append(" more, not listed due to maxChangeDetails");
+			}
 			sb.append(System.lineSeparator()).append(System.lineSeparator());
 		}
 		if (!this.getModules().isEmpty()) {
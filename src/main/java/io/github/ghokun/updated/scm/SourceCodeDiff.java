@@ -45,6 +45,27 @@ public class SourceCodeDiff {
 		this.newPath = newPath;
 	}
 	
+	/**
+	 * @return Type of change
+	 */
+	public DiffType getType() {
+		return this.type;
+	}
+	
+	/**
+	 * @return Path before change, /dev/null for added files
+	 */
+	public String getOldPath() {
+		return this.oldPath;
+	}
+	
+	/**
+	 * @return Path after change, /dev/null for deleted files
+	 */
+	public String getNewPath() {
+		return this.newPath;
+	}
+	
 	@Override
 	public String toString() {
 		final StringBuilder sb = new StringBuilder();
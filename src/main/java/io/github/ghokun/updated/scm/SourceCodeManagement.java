@@ -31,5 +31,19 @@ package io.github.ghokun.updated.scm;
  * @since 1.0.0
  */
 public enum SourceCodeManagement {
-	GIT
+	
+	/**
+	 * Git through JGit.
+	 */
+	GIT,
+	
+	/**
+	 * Git through git executable, falls back to {@link #GIT} if there is none on PATH.
+	 */
+	GIT_CLI,
+	
+	/**
+	 * No version control, files are compared to a snapshot recorded by an earlier detection.
+	 */
+	FILESYSTEM
 }
\ No newline at end of file
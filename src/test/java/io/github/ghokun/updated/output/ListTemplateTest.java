@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.output;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * {@link ListTemplate} with explicit and bare field names.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class ListTemplateTest {
+	
+	private static final ListRow ROW = new ListRow("/work", "/work/pom.xml", "org.example", "library", "1.0",
+		"1.1", "central", "https://repo.maven.apache.org/maven2");
+	
+	@Test
+	public void rendersExplicitFields() {
+		assertEquals("org.example:library -> 1.1",
+			ListTemplate.compile("{groupId}:{artifactId} -> {remoteVersion}").render(ROW));
+	}
+	
+	@Test
+	public void rendersBareFields() {
+		assertEquals("org.example:library,1.0,central",
+			ListTemplate.compile("groupId:artifactId,localVersion,remoteRepositoryId").render(ROW));
+	}
+	
+	@Test
+	public void keepsUnknownBracesLiteral() {
+		assertEquals("{name} library {", ListTemplate.compile("{name} {artifactId} {").render(ROW));
+	}
+	
+	@Test
+	public void rendersNullValues() {
+		final ListRow missing = new ListRow("/work", "/work/pom.xml", "org.example", "library", "1.0", null, null,
+			null);
+		assertEquals("library null null", ListTemplate.compile("artifactId remoteVersion {remoteRepositoryUrl}")
+			.render(missing));
+	}
+	
+	@Test
+	public void rendersSameTextIntoWriter() throws IOException {
+		final ListTemplate template = ListTemplate.compile("[{baseDir}] {pomPath}: remoteVersion");
+		final StringWriter writer = new StringWriter();
+		template.render(ROW, writer);
+		assertEquals(template.render(ROW), writer.toString());
+		assertEquals("[/work] /work/pom.xml: 1.1", writer.toString());
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.output;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import io.github.ghokun.updated.enumeration.OutputFormat;
+
+/**
+ * {@link ListWriter} in every {@link OutputFormat}.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class ListWriterTest {
+	
+	private static final ListTemplate TEMPLATE = ListTemplate.compile("{artifactId},{remoteVersion}");
+	private static final ListRow FIRST = new ListRow("/work", "/work/pom.xml", "org.example", "first", "1.0", "1.1",
+		"central", "https://repo");
+	private static final ListRow SECOND = new ListRow("C:\\work", "C:\\work\\pom.xml", "org.example", "\"second\"\n",
+		"1.0", null, null, null);
+	
+	private static final String FIRST_JSON = "{\"baseDir\":\"/work\",\"pomPath\":\"/work/pom.xml\","
+			+ "\"groupId\":\"org.example\",\"artifactId\":\"first\",\"localVersion\":\"1.0\",\"remoteVersion\":\"1.1\","
+			+ "\"remoteRepositoryId\":\"central\",\"remoteRepositoryUrl\":\"https://repo\"}";
+	private static final String SECOND_JSON = "{\"baseDir\":\"C:\\\\work\",\"pomPath\":\"C:\\\\work\\\\pom.xml\","
+			+ "\"groupId\":\"org.example\",\"artifactId\":\"\\\"second\\\"\\n\",\"localVersion\":\"1.0\","
+			+ "\"remoteVersion\":null,\"remoteRepositoryId\":null,\"remoteRepositoryUrl\":null}";
+	
+	@Test
+	public void writesCsvWithHeader() throws IOException {
+		assertEquals("artifactId,remoteVersion\nfirst,1.1\n\"second\"\n,null", write(OutputFormat.CSV, FIRST, SECOND));
+	}
+	
+	@Test
+	public void writesNdjsonWithoutHeader() throws IOException {
+		assertEquals(FIRST_JSON + "\n" + SECOND_JSON, write(OutputFormat.NDJSON, FIRST, SECOND));
+	}
+	
+	@Test
+	public void writesJsonArray() throws IOException {
+		assertEquals("[\n" + FIRST_JSON + "\n," + SECOND_JSON + "\n]", write(OutputFormat.JSON, FIRST, SECOND));
+	}
+	
+	@Test
+	public void writesEmptyJsonArray() throws IOException {
+		assertEquals("[]", write(OutputFormat.JSON));
+	}
+	
+	private static String write(OutputFormat format, ListRow... rows) throws IOException {
+		final StringWriter target = new StringWriter();
+		try (ListWriter writer = ListWriter.create(format, target, "\n", TEMPLATE)) {
+			writer.writeHeader("artifactId,remoteVersion");
+			for (final ListRow row : rows) {
+				writer.writeRow(row);
+			}
+		}
+		return target.toString();
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.reactor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Extension;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+
+/**
+ * Downstream projects of {@link ReactorGraph}.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class ReactorGraphTest {
+	
+	private static MavenProject project(String artifactId) {
+		final MavenProject project = new MavenProject();
+		project.setGroupId("org.example");
+		project.setArtifactId(artifactId);
+		project.setVersion("1.0.0");
+		project.getModel().setBuild(new Build());
+		return project;
+	}
+	
+	private static MavenProject dependsOn(MavenProject project, String artifactId, String version) {
+		final Dependency dependency = new Dependency();
+		dependency.setGroupId("org.example");
+		dependency.setArtifactId(artifactId);
+		dependency.setVersion(version);
+		project.getModel().addDependency(dependency);
+		return project;
+	}
+	
+	private static String downstream(ReactorGraph graph, String... artifactIds) {
+		final BitSet projects = new BitSet();
+		for (final String artifactId : artifactIds) {
+			projects.set(graph.indexOf("org.example", artifactId));
+		}
+		return graph.toProjectList(graph.downstream(projects), ",");
+	}
+	
+	@Test
+	public void dependentsAreFoundTransitively() {
+		final ReactorGraph graph = ReactorGraph
+			.of(Arrays
+				.asList(project("api"),
+					dependsOn(project("core"), "api", "1.0.0"),
+					dependsOn(project("web"), "core", "1.0.0"),
+					project("tools"),
+					dependsOn(dependsOn(project("app"), "web", "1.0.0"), "tools", "1.0.0")));
+		
+		assertEquals(5, graph.size());
+		assertEquals("org.example:api,org.example:core,org.example:web,org.example:app", downstream(graph, "api"));
+		assertEquals("org.example:tools,org.example:app", downstream(graph, "tools"));
+		assertEquals("org.example:app", downstream(graph, "app"));
+		assertEquals("", downstream(graph));
+	}
+	
+	@Test
+	public void cyclicDependentsEndWalk() {
+		final ReactorGraph graph = ReactorGraph
+			.of(Arrays
+				.asList(dependsOn(project("a"), "c", "1.0.0"),
+					dependsOn(project("b"), "a", "1.0.0"),
+					dependsOn(dependsOn(project("c"), "b", "1.0.0"), "c", "1.0.0"),
+					project("d")));
+		
+		assertEquals("org.example:a,org.example:b,org.example:c", downstream(graph, "b"));
+		assertEquals("org.example:a,org.example:b,org.example:c,org.example:d", downstream(graph, "a", "d"));
+	}
+	
+	@Test
+	public void otherVersionsAreNotReactorDependencies() {
+		final ReactorGraph graph = ReactorGraph
+			.of(Arrays
+				.asList(project("api"),
+					dependsOn(project("released"), "api", "0.9.0"),
+					dependsOn(project("external"), "commons", "1.0.0")));
+		
+		assertEquals("org.example:api", downstream(graph, "api"));
+		assertEquals(-1, graph.indexOf("org.example", "commons"));
+	}
+	
+	@Test
+	public void parentsPluginsAndExtensionsAreDependencies() {
+		final MavenProject parent = project("parent");
+		final MavenProject child = project("child");
+		final Parent reference = new Parent();
+		reference.setGroupId("org.example");
+		reference.setArtifactId("parent");
+		reference.setVersion("1.0.0");
+		child.getModel().setParent(reference);
+		final MavenProject plugin = project("plugin");
+		final MavenProject pluginUser = project("plugin-user");
+		final Plugin usage = new Plugin();
+		usage.setGroupId("org.example");
+		usage.setArtifactId("plugin");
+		usage.setVersion("1.0.0");
+		pluginUser.getModel().getBuild().addPlugin(usage);
+		final MavenProject extension = project("extension");
+		final MavenProject extensionUser = project("extension-user");
+		final Extension extensionUsage = new Extension();
+		extensionUsage.setGroupId("org.example");
+		extensionUsage.setArtifactId("extension");
+		extensionUsage.setVersion("1.0.0");
+		extensionUser.getModel().getBuild().addExtension(extensionUsage);
+		final ReactorGraph graph = ReactorGraph
+			.of(Arrays.asList(parent, plugin, extension, child, pluginUser, extensionUser));
+		
+		assertEquals("org.example:parent,org.example:child", downstream(graph, "parent"));
+		assertEquals("org.example:plugin,org.example:plugin-user", downstream(graph, "plugin"));
+		assertEquals("org.example:extension,org.example:extension-user", downstream(graph, "extension"));
+	}
+	
+	@Test
+	public void manyDependentsGrowEdges() {
+		final MavenProject[] projects = new MavenProject[200];
+		projects[0] = project("base");
+		for (int i = 1; i < projects.length; i++) {
+			// Every project depends on base and on its predecessor
+			projects[i] = dependsOn(dependsOn(project("m" + i), "base", "1.0.0"),
+				projects[i - 1].getArtifactId(),
+				"1.0.0");
+		}
+		final ReactorGraph graph = ReactorGraph.of(Arrays.asList(projects));
+		
+		assertEquals(200, graph.downstream(bits(0)).cardinality());
+		assertEquals(101, graph.downstream(bits(99)).cardinality());
+		assertEquals(1, graph.downstream(bits(199)).cardinality());
+	}
+	
+	private static BitSet bits(int index) {
+		final BitSet bits = new BitSet();
+		bits.set(index);
+		return bits;
+	}
+}
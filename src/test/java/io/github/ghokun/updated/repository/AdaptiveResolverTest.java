@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.transfer.RepositoryOfflineException;
+import org.eclipse.aether.version.Version;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.github.ghokun.updated.enumeration.VersionLookup;
+import io.github.ghokun.updated.metrics.Metrics;
+
+/**
+ * {@link AdaptiveResolver} against {@link StubRepository} servers.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class AdaptiveResolverTest {
+	
+	private final Metrics metrics = new Metrics();
+	private RepositoryHealth health;
+	private AdaptiveResolver resolver;
+	
+	@Before
+	public void setUp() {
+		this.health = new RepositoryHealth(2);
+		this.resolver = this.resolver(100);
+	}
+	
+	@After
+	public void tearDown() {
+		this.resolver.close();
+	}
+	
+	private AdaptiveResolver resolver(long hedgeDelay) {
+		return new AdaptiveResolver(
+			new InMemoryVersionResolver(ResolverSupport.transporterProvider(), VersionLookup.RANGE),
+			new DefaultRepositorySystemSession(), this.health, 95, hedgeDelay, this.metrics, new SystemStreamLog());
+	}
+	
+	private VersionRangeResult resolve(RemoteRepository... repositories) throws Exception {
+		return this.resolver
+			.resolveVersionRange(
+				new VersionRangeRequest(new DefaultArtifact("org.example:library:[0,)"), Arrays.asList(repositories),
+					null));
+	}
+	
+	private static String versions(VersionRangeResult result) {
+		final StringBuilder versions = new StringBuilder();
+		for (final Version version : result.getVersions()) {
+			versions.append(versions.length() > 0 ? "," : "").append(version);
+		}
+		return versions.toString();
+	}
+	
+	@Test
+	public void slowRequestIsHedged() throws Exception {
+		try (final StubRepository stub = new StubRepository("1.0", "1.1").respond(5000, 200).respond(0, 200)) {
+			final long start = System.nanoTime();
+			final VersionRangeResult result = this.resolve(stub.repository("slow"));
+			
+			assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 4000);
+			assertEquals("1.0,1.1", versions(result));
+			assertTrue(result.getExceptions().isEmpty());
+			assertEquals(2, stub.requests());
+			assertEquals(1, this.metrics.counter("hedged requests"));
+		}
+	}
+	
+	@Test
+	public void failedRequestWaitsForHedge() throws Exception {
+		this.health = new RepositoryHealth(1);
+		this.resolver.close();
+		this.resolver = this.resolver(100);
+		try (final StubRepository stub = new StubRepository("1.0").respond(300, 500).respond(600, 200)) {
+			final RemoteRepository repository = stub.repository("flaky");
+			final VersionRangeResult result = this.resolve(repository);
+			
+			assertEquals("1.0", versions(result));
+			assertTrue(result.getExceptions().isEmpty());
+			assertEquals(2, stub.requests());
+			assertFalse(this.health.isOpen(repository));
+		}
+	}
+	
+	@Test
+	public void failingRepositoryIsSkipped() throws Exception {
+		this.resolver.close();
+		this.resolver = this.resolver(10000);
+		try (final StubRepository stub = new StubRepository("1.0").respond(0, 500)) {
+			final RemoteRepository repository = stub.repository("failing");
+			for (int i = 0; i < 2; i++) {
+				final List<Exception> exceptions = this.resolve(repository).getExceptions();
+				assertEquals(1, exceptions.size());
+				assertFalse(exceptions.get(0) instanceof RepositoryOfflineException);
+			}
+			assertTrue(this.health.isOpen(repository));
+			
+			final VersionRangeResult result = this.resolve(repository);
+			assertEquals("", versions(result));
+			assertEquals(1, result.getExceptions().size());
+			assertTrue(result.getExceptions().get(0) instanceof RepositoryOfflineException);
+			assertEquals(2, stub.requests());
+			assertEquals(1, this.metrics.counter("skipped requests"));
+		}
+	}
+	
+	@Test
+	public void resultsAreMergedInConfiguredOrder() throws Exception {
+		this.resolver.close();
+		this.resolver = this.resolver(10000);
+		try (final StubRepository first = new StubRepository("1.0", "2.0").respond(300, 200);
+				final StubRepository second = new StubRepository("1.0", "1.5")) {
+			final VersionRangeResult result = this.resolve(first.repository("first"), second.repository("second"));
+			
+			assertEquals("1.0,1.5,2.0", versions(result));
+			assertEquals("first", result.getRepository(result.getVersions().get(0)).getId());
+			assertEquals("second", result.getRepository(result.getVersions().get(1)).getId());
+			assertEquals("first", result.getRepository(result.getVersions().get(2)).getId());
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.junit.Test;
+
+/**
+ * {@link MavenMetadataReader} on artifact level metadata.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class MavenMetadataReaderTest {
+	
+	private static final String METADATA = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<metadata modelVersion=\"1.1.0\">\n"
+			+ "  <groupId>org.example</groupId>\n"
+			+ "  <artifactId>library</artifactId>\n"
+			+ "  <plugins><plugin><name>ignored</name><prefix>x</prefix></plugin></plugins>\n"
+			+ "  <versioning>\n"
+			+ "    <latest>2.0-SNAPSHOT</latest>\n"
+			+ "    <release> </release>\n"
+			+ "    <versions>\n"
+			+ "      <version>1.0</version>\n"
+			+ "      <version>\n 1.1 \n</version>\n"
+			+ "      <version></version>\n"
+			+ "      <version>2.0-SNAPSHOT</version>\n"
+			+ "    </versions>\n"
+			+ "    <lastUpdated>20200101000000</lastUpdated>\n"
+			+ "  </versioning>\n"
+			+ "</metadata>\n";
+	
+	private static InputStream input(String xml) {
+		return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	public void versionsAreReadWithoutBlanks() throws Exception {
+		assertEquals(Arrays.asList("1.0", "1.1", "2.0-SNAPSHOT"), MavenMetadataReader.readVersions(input(METADATA)));
+	}
+	
+	@Test
+	public void markersAreReadWithoutBlanks() throws Exception {
+		assertEquals(Collections.singletonList("2.0-SNAPSHOT"), MavenMetadataReader.readMarkers(input(METADATA)));
+	}
+	
+	@Test
+	public void metadataWithoutVersioningHasNoVersions() throws Exception {
+		assertEquals(Collections.emptyList(),
+			MavenMetadataReader.readVersions(input("<metadata><groupId>org.example</groupId></metadata>")));
+	}
+	
+	@Test
+	public void parseKeepsVersionsWithinConstraint() throws Exception {
+		final GenericVersionScheme scheme = new GenericVersionScheme();
+		assertEquals(Arrays.asList(scheme.parseVersion("1.1"), scheme.parseVersion("2.0")),
+			MavenMetadataReader
+				.parse(Arrays.asList("1.0", "1.1", "2.0"), scheme.parseVersionConstraint("[1.1,)"), scheme));
+	}
+	
+	@Test(expected = XMLStreamException.class)
+	public void malformedMetadataFails() throws Exception {
+		MavenMetadataReader.readVersions(input("<metadata><versioning><versions><version>1.0</versions>"));
+	}
+}
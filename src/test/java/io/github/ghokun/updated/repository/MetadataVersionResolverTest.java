@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.version.Version;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.github.ghokun.updated.metrics.Metrics;
+
+/**
+ * {@link MetadataVersionResolver} against file repositories.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class MetadataVersionResolverTest {
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	private final Metrics metrics = new Metrics();
+	private final MetadataVersionResolver resolver = new MetadataVersionResolver(ResolverSupport.repositorySystem(),
+		this.metrics);
+	private DefaultRepositorySystemSession session;
+	
+	@Before
+	public void setUp() throws Exception {
+		this.session = MavenRepositorySystemUtils.newSession();
+		this.session
+			.setLocalRepositoryManager(ResolverSupport
+				.repositorySystem()
+				.newLocalRepositoryManager(this.session, new LocalRepository(this.folder.newFolder("local"))));
+	}
+	
+	private RemoteRepository repository(String id, String versioning) throws Exception {
+		final File directory = this.folder.newFolder(id);
+		final Path metadata = directory.toPath().resolve("org/example/library/maven-metadata.xml");
+		Files.createDirectories(metadata.getParent());
+		Files
+			.write(metadata,
+				("<metadata><groupId>org.example</groupId><artifactId>library</artifactId><versioning>" + versioning
+						+ "</versioning></metadata>").getBytes(StandardCharsets.UTF_8));
+		return new RemoteRepository.Builder(id, "default", directory.toURI().toString()).build();
+	}
+	
+	private VersionRangeResult resolve(RemoteRepository... repositories) throws Exception {
+		return this.resolver
+			.resolveVersionRange(this.session,
+				new VersionRangeRequest(new DefaultArtifact("org.example:library:[0,)"), Arrays.asList(repositories),
+					null));
+	}
+	
+	private static String versions(VersionRangeResult result) {
+		final StringBuilder versions = new StringBuilder();
+		for (final Version version : result.getVersions()) {
+			versions
+				.append(versions.length() > 0 ? "," : "")
+				.append(version)
+				.append('@')
+				.append(result.getRepository(version).getId());
+		}
+		return versions.toString();
+	}
+	
+	@Test
+	public void markersAreReadInsteadOfVersions() throws Exception {
+		final VersionRangeResult result = this
+			.resolve(this
+				.repository("central",
+					"<latest>2.0</latest><release>2.0</release><versions><version>1.0</version>"
+							+ "<version>2.0</version></versions>"));
+		
+		assertEquals("2.0@central", versions(result));
+		assertEquals(0, this.metrics.counter("metadata fallbacks"));
+	}
+	
+	@Test
+	public void onlyRepositoriesWithoutMarkersFallBackToRange() throws Exception {
+		final RemoteRepository central = this
+			.repository("central",
+				"<latest>2.0</latest><release>2.0</release><versions><version>1.0</version>"
+						+ "<version>2.0</version></versions>");
+		final RemoteRepository releases = this
+			.repository("releases", "<versions><version>1.5</version><version>2.0</version>"
+					+ "<version>3.0</version></versions>");
+		final VersionRangeResult result = this.resolve(central, releases);
+		
+		assertEquals("1.5@releases,2.0@central,3.0@releases", versions(result));
+		assertEquals("3.0", result.getHighestVersion().toString());
+		assertEquals(1, this.metrics.counter("metadata fallbacks"));
+	}
+}
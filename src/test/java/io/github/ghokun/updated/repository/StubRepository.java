@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.aether.repository.RemoteRepository;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Remote repository stand-in on a local HTTP server. Every metadata request is answered with the same versions, after
+ * a scripted delay and status. The last scripted response repeats.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+final class StubRepository implements Closeable {
+	
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final byte[] metadata;
+	private final List<long[]> responses = new ArrayList<>();
+	private final AtomicInteger requests = new AtomicInteger();
+	
+	/**
+	 * @param versions Versions listed in maven-metadata.xml of any artifact
+	 * @throws IOException If server could not be started
+	 */
+	StubRepository(String... versions) throws IOException {
+		final StringBuilder xml = new StringBuilder("<metadata><versioning><versions>");
+		for (final String version : versions) {
+			xml.append("<version>").append(version).append("</version>");
+		}
+		this.metadata = xml.append("</versions></versioning></metadata>").toString().getBytes(StandardCharsets.UTF_8);
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		this.server.setExecutor(this.executor);
+		this.server.createContext("/", this::handle);
+		this.server.start();
+	}
+	
+	/**
+	 * Appends a scripted response.
+	 *
+	 * @param delayMillis Milliseconds to wait before answering
+	 * @param status HTTP status, metadata is sent with 200 only
+	 * @return This repository
+	 */
+	synchronized StubRepository respond(long delayMillis, int status) {
+		this.responses.add(new long[] {
+			delayMillis, status
+		});
+		return this;
+	}
+	
+	/**
+	 * @param id Repository id
+	 * @return Remote repository pointing to this server
+	 */
+	RemoteRepository repository(String id) {
+		return new RemoteRepository.Builder(id, "default",
+			"http://localhost:" + this.server.getAddress().getPort() + "/").build();
+	}
+	
+	/**
+	 * @return Number of requests received so far
+	 */
+	int requests() {
+		return this.requests.get();
+	}
+	
+	private synchronized long[] next() {
+		if (this.responses.isEmpty()) {
+			return new long[] {
+				0, 200
+			};
+		}
+		return this.responses.size() > 1
+				? this.responses.remove(0)
+				: this.responses.get(0);
+	}
+	
+	private void handle(HttpExchange exchange) throws IOException {
+		this.requests.incrementAndGet();
+		final long[] response = this.next();
+		try {
+			Thread.sleep(response[0]);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		try (final OutputStream out = exchange.getResponseBody()) {
+			if (response[1] == 200 && exchange.getRequestURI().getPath().endsWith("/maven-metadata.xml")) {
+				exchange.sendResponseHeaders(200, this.metadata.length);
+				out.write(this.metadata);
+			} else {
+				exchange.sendResponseHeaders(response[1] == 200 ? 404 : (int) response[1], -1);
+			}
+		}
+	}
+	
+	@Override
+	public void close() {
+		this.server.stop(0);
+		this.executor.shutdownNow();
+	}
+}
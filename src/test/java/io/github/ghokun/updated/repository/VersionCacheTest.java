@@ -0,0 +1,162 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.transfer.MetadataTransferException;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.Version;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link VersionCache} entries written and read back.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class VersionCacheTest {
+	
+	private static final RemoteRepository CENTRAL = new RemoteRepository.Builder("central", "default",
+		"https://repo.example.org/central").build();
+	private static final RemoteRepository RELEASES = new RemoteRepository.Builder("releases", "default",
+		"https://repo.example.org/releases").build();
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	private static VersionRangeRequest request(String range, RemoteRepository... repositories) {
+		return new VersionRangeRequest(new DefaultArtifact("org.example:library:" + range),
+			Arrays.asList(repositories), null);
+	}
+	
+	/**
+	 * Central has 0.9 and 1.0, releases has 1.0 and 1.1.
+	 */
+	private static List<VersionRangeResult> results(VersionRangeRequest request) throws Exception {
+		final GenericVersionScheme scheme = new GenericVersionScheme();
+		final List<VersionRangeResult> results = new ArrayList<>();
+		for (final RemoteRepository repository : request.getRepositories()) {
+			final VersionRangeResult result = new VersionRangeResult(AdaptiveResolver.single(request, repository));
+			for (final String value : CENTRAL.equals(repository)
+					? new String[] {
+						"0.9", "1.0"
+					}
+					: new String[] {
+						"1.0", "1.1"
+					}) {
+				final Version version = scheme.parseVersion(value);
+				result.addVersion(version);
+				result.setRepository(version, repository);
+			}
+			results.add(result);
+		}
+		return results;
+	}
+	
+	private static String versions(VersionRangeResult result) {
+		final StringBuilder versions = new StringBuilder();
+		for (final Version version : result.getVersions()) {
+			versions
+				.append(versions.length() > 0 ? "," : "")
+				.append(version)
+				.append('@')
+				.append(result.getRepository(version).getId());
+		}
+		return versions.toString();
+	}
+	
+	@Test
+	public void cachedVersionsAnswerOtherRanges() throws Exception {
+		final VersionCache cache = new VersionCache(this.folder.getRoot().toPath(), 60000);
+		cache.put(results(request("[0,)", CENTRAL, RELEASES)));
+		
+		assertEquals("0.9@central,1.0@central,1.1@releases",
+			versions(cache.get(request("[0,)", CENTRAL, RELEASES))));
+		assertEquals("1.0@central,1.1@releases", versions(cache.get(request("[1.0,)", CENTRAL, RELEASES))));
+		assertEquals("0.9@central,1.0@central", versions(cache.get(request("[0,)", CENTRAL))));
+	}
+	
+	@Test
+	public void versionIsRecordedForEveryRepositoryThatHasIt() throws Exception {
+		final VersionCache cache = new VersionCache(this.folder.getRoot().toPath(), 60000);
+		cache.put(results(request("[0,)", CENTRAL, RELEASES)));
+		
+		assertEquals("1.0@releases,1.1@releases", versions(cache.get(request("[0,)", RELEASES))));
+		assertEquals("0.9@central,1.0@releases,1.1@releases",
+			versions(cache.get(request("[0,)", RELEASES, CENTRAL))));
+	}
+	
+	@Test
+	public void missingOrExpiredRepositoryIsNotAnswered() throws Exception {
+		final Path directory = this.folder.getRoot().toPath();
+		new VersionCache(directory, 60000).put(results(request("[0,)", CENTRAL)));
+		
+		assertNull(new VersionCache(directory, 60000).get(request("[0,)", CENTRAL, RELEASES)));
+		assertNull(new VersionCache(directory, 0).get(request("[0,)", CENTRAL)));
+		final RemoteRepository moved = new RemoteRepository.Builder("central", "default",
+			"https://mirror.example.org/central").build();
+		assertNull(new VersionCache(directory, 60000).get(request("[0,)", moved)));
+	}
+	
+	@Test
+	public void failedLookupIsNotStored() throws Exception {
+		final VersionCache cache = new VersionCache(this.folder.getRoot().toPath(), 60000);
+		final List<VersionRangeResult> results = results(request("[0,)", CENTRAL, RELEASES));
+		results.get(0).addException(new MetadataTransferException(null, CENTRAL, "Connection refused"));
+		cache.put(results);
+		
+		assertNull(cache.get(request("[0,)", CENTRAL)));
+		assertNull(cache.get(request("[0,)", CENTRAL, RELEASES)));
+		assertEquals("1.0@releases,1.1@releases", versions(cache.get(request("[0,)", RELEASES))));
+	}
+	
+	@Test
+	public void corruptLinesAreIgnored() throws Exception {
+		final Path directory = this.folder.getRoot().toPath();
+		final VersionCache cache = new VersionCache(directory, 60000);
+		cache.put(results(request("[0,)", CENTRAL, RELEASES)));
+		final Path file = directory.resolve("org.example").resolve("library.versions");
+		final String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		Files.write(file, content.replace("releases\t", "releases\tcorrupt\t").getBytes(StandardCharsets.UTF_8));
+		
+		assertNull(cache.get(request("[0,)", CENTRAL, RELEASES)));
+		assertEquals("0.9@central,1.0@central", versions(cache.get(request("[0,)", CENTRAL))));
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.scm;
+
+import static io.github.ghokun.updated.scm.Modules.module;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link ChangeCache} entries written and read back.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class ChangeCacheTest {
+	
+	private static final ObjectId LOCAL = ObjectId.fromString("1111111111111111111111111111111111111111");
+	private static final ObjectId REMOTE = ObjectId.fromString("2222222222222222222222222222222222222222");
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	private static SourceCodeChanges tree(String artifactId) {
+		final SourceCodeChanges root = new SourceCodeChanges("org.example", "root", "1.0.0", "/work");
+		root.getModules().add(new SourceCodeChanges("org.example", artifactId, "1.0.0", "/work/" + artifactId));
+		return root;
+	}
+	
+	private ChangeCache written(int maxDetails) throws Exception {
+		final SourceCodeChanges tree = tree("a");
+		final SourceCodeChanges a = module(tree, "a");
+		a.setMaxDiffDetails(maxDetails);
+		a.addDiff(DiffType.ADD, "/dev/null", "a/src/B.java");
+		a.addDiff(DiffType.MODIFY, "a/pom.xml", "a/pom.xml");
+		a.addDiff(DiffType.DELETE, "a/src/C.java", "/dev/null");
+		final ChangeCache cache = new ChangeCache(this.folder.getRoot().toPath());
+		cache.write(LOCAL, REMOTE, false, maxDetails, tree);
+		return cache;
+	}
+	
+	@Test
+	public void entryIsReadBack() throws Exception {
+		final ChangeCache cache = this.written(2);
+		
+		final SourceCodeChanges tree = tree("a");
+		assertTrue(cache.read(LOCAL, REMOTE, false, 2, tree));
+		final SourceCodeChanges a = module(tree, "a");
+		assertEquals(2, a.getDiffDetails().size());
+		assertEquals(new SourceCodeDiff(DiffType.ADD, "/dev/null", "a/src/B.java"), a.getDiffDetails().get(0));
+		assertEquals(3, a.diffCount());
+		assertEquals(1, a.diffCount(DiffType.DELETE));
+		assertFalse(module(tree, "root").hasDiff());
+	}
+	
+	@Test
+	public void fullEntryAnswersFirstChangeOnly() throws Exception {
+		assertTrue(this.written(2).read(LOCAL, REMOTE, true, 1, tree("a")));
+	}
+	
+	@Test
+	public void entryIsMissedForMoreDetailsOrOtherModules() throws Exception {
+		final ChangeCache cache = this.written(2);
+		
+		assertFalse(cache.read(LOCAL, REMOTE, false, 3, tree("a")));
+		assertFalse(cache.read(REMOTE, LOCAL, false, 2, tree("a")));
+		final SourceCodeChanges other = tree("b");
+		assertFalse(cache.read(LOCAL, REMOTE, false, 2, other));
+		assertFalse(module(other, "b").hasDiff());
+	}
+	
+	@Test
+	public void truncatedEntryLeavesTreeUntouched() throws Exception {
+		this.written(Integer.MAX_VALUE);
+		final File[] entries = this.folder.getRoot().listFiles((directory, name) -> name.endsWith(".changes"));
+		assertEquals(1, entries.length);
+		final Path entry = entries[0].toPath();
+		final byte[] content = Files.readAllBytes(entry);
+		Files.write(entry, Arrays.copyOf(content, content.length - 4));
+		
+		final SourceCodeChanges tree = tree("a");
+		try {
+			new ChangeCache(this.folder.getRoot().toPath()).read(LOCAL, REMOTE, false, Integer.MAX_VALUE, tree);
+			fail("Truncated entry was read");
+		} catch (final EOFException e) {
+			assertFalse(module(tree, "a").hasDiff());
+		}
+	}
+}
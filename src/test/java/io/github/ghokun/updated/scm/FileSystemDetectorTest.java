@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.scm;
+
+import static io.github.ghokun.updated.scm.Modules.module;
+import static io.github.ghokun.updated.scm.Modules.project;
+import static io.github.ghokun.updated.scm.Modules.write;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link FileSystemDetector} and its {@link FileSnapshot}.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class FileSystemDetectorTest {
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	private File root;
+	private Path snapshotFile;
+	private MavenProject rootProject;
+	private Set<MavenProject> projects;
+	
+	@Before
+	public void setUp() throws Exception {
+		this.root = this.folder.newFolder("source");
+		this.snapshotFile = this.folder.getRoot().toPath().resolve("snapshot.bin");
+		write(this.root, "pom.xml", "root");
+		write(this.root, "a/pom.xml", "a");
+		write(this.root, "a/src/A.java", "class A {}");
+		write(this.root, "a/target/A.class", "built");
+		this.rootProject = project(this.root, "root");
+		this.rootProject.getModel().addModule("a");
+		this.projects = new LinkedHashSet<>(Arrays.asList(this.rootProject, project(new File(this.root, "a"), "a")));
+	}
+	
+	private SourceCodeChanges detect(boolean updateSnapshot) throws MojoExecutionException {
+		return new FileSystemDetector()
+			.detectChanges(this.rootProject,
+				this.projects,
+				new SystemStreamLog(),
+				new ChangeDetectionRequest().setSnapshotFile(this.snapshotFile).setUpdateSnapshot(updateSnapshot));
+	}
+	
+	@Test
+	public void snapshotIsRecordedOnlyWhenRequested() throws Exception {
+		SourceCodeChanges changes = this.detect(false);
+		assertEquals(1, module(changes, "root").diffCount(DiffType.ADD));
+		assertEquals(2, module(changes, "a").diffCount(DiffType.ADD));
+		assertFalse(Files.exists(this.snapshotFile));
+		
+		changes = this.detect(true);
+		assertEquals(2, module(changes, "a").diffCount(DiffType.ADD));
+		assertEquals(3, FileSnapshot.read(this.snapshotFile).size());
+		
+		changes = this.detect(false);
+		assertFalse(module(changes, "root").hasDiff());
+		assertFalse(module(changes, "a").hasDiff());
+	}
+	
+	@Test
+	public void changesAreReportedAgainstSameSnapshot() throws Exception {
+		this.detect(true);
+		final byte[] recorded = Files.readAllBytes(this.snapshotFile);
+		
+		write(this.root, "a/src/A.java", "class A { int changed; }");
+		Files.delete(new File(this.root, "pom.xml").toPath());
+		write(this.root, "a/src/B.java", "class B {}");
+		for (int i = 0; i < 2; i++) {
+			final SourceCodeChanges changes = this.detect(false);
+			assertTrue(module(changes, "a")
+				.getDiffs()
+				.contains(new SourceCodeDiff(DiffType.MODIFY, "a/src/A.java", "a/src/A.java")));
+			assertTrue(module(changes, "a")
+				.getDiffs()
+				.contains(new SourceCodeDiff(DiffType.ADD, "/dev/null", "a/src/B.java")));
+			assertEquals(2, module(changes, "a").diffCount());
+			assertEquals(1, module(changes, "root").diffCount(DiffType.DELETE));
+		}
+		assertArrayEquals(recorded, Files.readAllBytes(this.snapshotFile));
+	}
+	
+	@Test
+	public void detectionIsLimitedToDirectories() throws Exception {
+		this.detect(true);
+		final byte[] recorded = Files.readAllBytes(this.snapshotFile);
+		write(this.root, "a/src/A.java", "class A { int changed; }");
+		Files.delete(new File(this.root, "pom.xml").toPath());
+		
+		final SourceCodeChanges changes = new FileSystemDetector()
+			.detectChanges(this.rootProject,
+				this.projects,
+				new SystemStreamLog(),
+				new ChangeDetectionRequest()
+					.setSnapshotFile(this.snapshotFile)
+					.setUpdateSnapshot(true)
+					.setDirectories(Collections.singleton("a")));
+		assertEquals(1, module(changes, "a").diffCount(DiffType.MODIFY));
+		assertFalse(module(changes, "root").hasDiff());
+		assertArrayEquals(recorded, Files.readAllBytes(this.snapshotFile));
+	}
+}
@@ -0,0 +1,272 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.scm;
+
+import static io.github.ghokun.updated.scm.Modules.module;
+import static io.github.ghokun.updated.scm.Modules.project;
+import static io.github.ghokun.updated.scm.Modules.write;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.URIish;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.github.ghokun.updated.enumeration.ChangeScope;
+import io.github.ghokun.updated.enumeration.ComparisonBase;
+
+/**
+ * {@link GitDetector} against a local bare remote, with commits on both sides of the remote branch.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class GitDetectorTest {
+	
+	private static final PersonIdent AUTHOR = new PersonIdent("test", "test@example.org");
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	private File local;
+	private Git localGit;
+	private Git remoteGit;
+	private ObjectId remoteBranch;
+	private MavenProject root;
+	private Set<MavenProject> projects;
+	
+	/**
+	 * Shared history of a root module and module a, a local commit in module a and a remote commit in root.
+	 */
+	@Before
+	public void setUp() throws Exception {
+		final File bare = this.folder.newFolder("remote.git");
+		Git.init().setBare(true).setDirectory(bare).call().close();
+		
+		this.local = this.folder.newFolder("local");
+		this.localGit = Git.init().setDirectory(this.local).call();
+		write(this.local, "pom.xml", "root");
+		write(this.local, "a/pom.xml", "a");
+		write(this.local, "a/src/A.java", "class A {}");
+		commit(this.localGit, "Shared history");
+		this.localGit.remoteAdd().setName(GitDetector.REMOTE).setUri(new URIish(bare.toURI().toURL())).call();
+		this.localGit.push().setRemote(GitDetector.REMOTE).setRefSpecs(new RefSpec("master:master")).call();
+		
+		this.remoteGit = Git.cloneRepository().setURI(bare.toURI().toString())
+			.setDirectory(this.folder.newFolder("other")).call();
+		this.remoteBranch = this.pushRemoteCommit("README.md", "remote");
+		
+		write(this.local, "a/src/A.java", "class A { int local; }");
+		commit(this.localGit, "Local change");
+		
+		this.root = project(this.local, "root");
+		this.root.getModel().addModule("a");
+		this.projects = new LinkedHashSet<>(Arrays.asList(this.root, project(new File(this.local, "a"), "a")));
+	}
+	
+	@After
+	public void tearDown() {
+		this.localGit.close();
+		this.remoteGit.close();
+	}
+	
+	private static ObjectId commit(Git git, String message) throws Exception {
+		git.add().addFilepattern(".").call();
+		return git.commit().setMessage(message).setAuthor(AUTHOR).setCommitter(AUTHOR).call().getId();
+	}
+	
+	private ObjectId pushRemoteCommit(String path, String content) throws Exception {
+		write(this.remoteGit.getRepository().getWorkTree(), path, content);
+		final ObjectId commit = commit(this.remoteGit, "Remote change of " + path);
+		this.remoteGit.push().call();
+		return commit;
+	}
+	
+	private ObjectId fetchedBranch() throws IOException {
+		return this.localGit.getRepository().resolve(GitDetector.REMOTE_REFS + "master");
+	}
+	
+	private SourceCodeChanges detect(ChangeDetectionRequest request) throws MojoExecutionException {
+		return new GitDetector().detectChanges(this.root, this.projects, new SystemStreamLog(), request);
+	}
+	
+	@Test
+	public void fetchesRemoteBranch() throws Exception {
+		final SourceCodeChanges changes = this
+			.detect(new ChangeDetectionRequest().setRemoteBranch("master").setFetch(true));
+		
+		assertEquals(this.remoteBranch, this.fetchedBranch());
+		assertEquals(1, module(changes, "a").diffCount());
+		assertTrue(module(changes, "a")
+			.getDiffs()
+			.contains(new SourceCodeDiff(DiffType.MODIFY, "a/src/A.java", "a/src/A.java")));
+		// Compared to the tip of remote branch, its own commit shows up as a deletion
+		assertEquals(1, module(changes, "root").diffCount());
+		assertTrue(module(changes, "root")
+			.getDiffs()
+			.contains(new SourceCodeDiff(DiffType.DELETE, "README.md", "/dev/null")));
+	}
+	
+	@Test
+	public void mergeBaseExcludesRemoteChanges() throws Exception {
+		final SourceCodeChanges changes = this
+			.detect(new ChangeDetectionRequest()
+				.setRemoteBranch("master")
+				.setFetch(true)
+				.setComparisonBase(ComparisonBase.MERGE_BASE));
+		
+		assertTrue(module(changes, "a").hasDiff());
+		assertFalse(module(changes, "root").hasDiff());
+	}
+	
+	@Test
+	public void fetchIsSkippedWithinInterval() throws Exception {
+		final ChangeDetectionRequest request = new ChangeDetectionRequest().setRemoteBranch("master").setFetch(true);
+		this.detect(request);
+		assertEquals(this.remoteBranch, this.fetchedBranch());
+		
+		final ObjectId newer = this.pushRemoteCommit("README.md", "newer");
+		this.detect(request.setFetchInterval(3600));
+		assertEquals(this.remoteBranch, this.fetchedBranch());
+		
+		this.detect(request.setFetchInterval(0));
+		assertEquals(newer, this.fetchedBranch());
+	}
+	
+	@Test
+	public void workingTreeDetectionIsLimitedToDirectories() throws Exception {
+		write(this.local, "a/src/B.java", "class B {}");
+		write(this.local, "pom.xml", "root changed");
+		final ChangeDetectionRequest request = new ChangeDetectionRequest()
+			.setRemoteBranch("master")
+			.setComparisonBase(ComparisonBase.MERGE_BASE)
+			.setChangeScope(ChangeScope.WORKING_TREE);
+		
+		SourceCodeChanges changes = this.detect(request);
+		assertEquals(2, module(changes, "a").diffCount());
+		assertTrue(module(changes, "root").hasDiff());
+		
+		changes = this.detect(request.setDirectories(Collections.singleton("a")));
+		assertEquals(2, module(changes, "a").diffCount());
+		assertFalse(module(changes, "root").hasDiff());
+	}
+	
+	@Test
+	public void uncommittedModulesAreNotFingerprinted() throws Exception {
+		final Map<String, String> committed = new GitDetector()
+			.fingerprints(this.root, this.projects, new SystemStreamLog());
+		assertEquals(2, committed.size());
+		
+		write(this.local, "a/src/B.java", "class B {}");
+		final Map<String, String> dirty = new GitDetector()
+			.fingerprints(this.root, this.projects, new SystemStreamLog());
+		assertEquals(committed.get("org.example:root"), dirty.get("org.example:root"));
+		assertEquals(SourceCodeChangeDetector.UNCOMMITTED, dirty.get("org.example:a"));
+	}
+	
+	@Test
+	public void parallelDiffMatchesSequentialDiff() throws Exception {
+		write(this.local, "b/pom.xml", "b");
+		write(this.local, "b/src/B.java", "class B {}");
+		write(this.local, "b/c/pom.xml", "c");
+		write(this.local, "b/c/src/C.java", "class C {}");
+		write(this.local, "a/src/A.java", "class A { int local; int more; }");
+		write(this.local, "root.txt", "root");
+		commit(this.localGit, "Nested modules");
+		this.root.getModel().addModule("b");
+		final MavenProject b = project(new File(this.local, "b"), "b");
+		b.getModel().addModule("c");
+		this.projects.add(b);
+		this.projects.add(project(new File(this.local, "b/c"), "c"));
+		final ChangeDetectionRequest request = new ChangeDetectionRequest()
+			.setRemoteBranch("master")
+			.setFetch(true)
+			.setChangeScope(ChangeScope.COMMITTED);
+		
+		final SourceCodeChanges sequential = this.detect(request.setDiffThreads(1));
+		final SourceCodeChanges parallel = this.detect(request.setDiffThreads(4));
+		for (final String artifactId : Arrays.asList("root", "a", "b", "c")) {
+			assertEquals(artifactId,
+				module(sequential, artifactId).getDiffs(),
+				module(parallel, artifactId).getDiffs());
+		}
+		assertEquals(2, module(sequential, "root").diffCount());
+		assertEquals(2, module(sequential, "b").diffCount());
+		assertEquals(2, module(sequential, "c").diffCount());
+	}
+	
+	@Test
+	public void gitCliMatchesJGit() throws Exception {
+		write(this.local, "a/src/B.java", "class B {}");
+		write(this.local, "pom.xml", "root changed");
+		for (final ChangeScope scope : ChangeScope.values()) {
+			for (final ComparisonBase base : ComparisonBase.values()) {
+				final ChangeDetectionRequest request = new ChangeDetectionRequest()
+					.setRemoteBranch("master")
+					.setFetch(true)
+					.setChangeScope(scope)
+					.setComparisonBase(base);
+				final SourceCodeChanges jgit = this.detect(request);
+				final SourceCodeChanges cli = new GitCliDetector()
+					.detectChanges(this.root, this.projects, new SystemStreamLog(), request);
+				for (final String artifactId : Arrays.asList("root", "a")) {
+					assertEquals(scope + " " + base + " " + artifactId,
+						module(jgit, artifactId).getDiffs(),
+						module(cli, artifactId).getDiffs());
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void missingRemoteBranchFails() throws Exception {
+		try {
+			this.detect(new ChangeDetectionRequest().setRemoteBranch("missing").setFetch(true));
+			fail("Missing remote branch was not reported");
+		} catch (final MojoExecutionException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(GitDetector.REMOTE_REFS + "missing"));
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.scm;
+
+import static io.github.ghokun.updated.scm.Modules.module;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.Test;
+
+/**
+ * Module attribution of {@link ModuleIndex}.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class ModuleIndexTest {
+	
+	private static final File ROOT = new File("/work");
+	
+	private static SourceCodeChanges tree(String... modules) {
+		final SourceCodeChanges root = new SourceCodeChanges("org.example", "root", "1.0.0", ROOT.getPath());
+		for (final String module : modules) {
+			final String artifactId = module.substring(module.lastIndexOf('/') + 1);
+			final SourceCodeChanges changes = new SourceCodeChanges("org.example", artifactId, "1.0.0",
+				new File(ROOT, module).getPath());
+			final int parentEnd = module.lastIndexOf('/');
+			if (parentEnd < 0) {
+				root.getModules().add(changes);
+			} else {
+				module(root, module.substring(module.lastIndexOf('/', parentEnd - 1) + 1, parentEnd))
+					.getModules()
+					.add(changes);
+			}
+		}
+		return root;
+	}
+	
+	@Test
+	public void pathIsOwnedByDeepestModule() {
+		final SourceCodeChanges tree = tree("a", "a/b", "a/b/c");
+		final ModuleIndex index = new ModuleIndex(tree);
+		
+		assertEquals(4, index.size());
+		assertSame(tree, index.find("pom.xml"));
+		assertSame(tree, index.find("src/Root.java"));
+		assertSame(module(tree, "a"), index.find("a/pom.xml"));
+		assertSame(module(tree, "a"), index.find("a/src/b/B.java"));
+		assertSame(module(tree, "b"), index.find("a/b/pom.xml"));
+		assertSame(module(tree, "c"), index.find("a/b/c/src/C.java"));
+		assertSame(module(tree, "c"), index.find("a/b/c"));
+	}
+	
+	@Test
+	public void siblingPrefixesAreDistinct() {
+		final SourceCodeChanges tree = tree("a", "ab", "a/b");
+		final ModuleIndex index = new ModuleIndex(tree);
+		
+		assertSame(module(tree, "ab"), index.find("ab/pom.xml"));
+		assertSame(module(tree, "a"), index.find("a/bc/pom.xml"));
+		assertSame(module(tree, "a"), index.find("a/ab/pom.xml"));
+		assertSame(tree, index.find("abc/pom.xml"));
+		assertSame(tree, index.find("a.txt"));
+	}
+	
+	@Test
+	public void collidingAndManySegmentsAreFound() {
+		// "Aa" and "BB" have the same hash code, 40 siblings resize the child table several times
+		final String[] modules = new String[42];
+		modules[0] = "Aa";
+		modules[1] = "BB";
+		for (int i = 2; i < modules.length; i++) {
+			modules[i] = "module" + i;
+		}
+		final SourceCodeChanges tree = tree(modules);
+		final ModuleIndex index = new ModuleIndex(tree);
+		
+		assertEquals(43, index.size());
+		for (final String module : modules) {
+			assertSame(module, module(tree, module), index.find(module + "/src/Main.java"));
+			assertTrue(module, index.isModule(module));
+		}
+		assertSame(tree, index.find("Ab/pom.xml"));
+		assertSame(tree, index.find("module42/pom.xml"));
+	}
+	
+	@Test
+	public void directoriesContainingModulesAreKnown() {
+		final ModuleIndex index = new ModuleIndex(tree("a", "a/b", "a/b/c"));
+		
+		assertTrue(index.containsModules(""));
+		assertTrue(index.containsModules("a"));
+		assertTrue(index.containsModules("a/b/"));
+		assertFalse(index.containsModules("a/src"));
+		assertFalse(index.containsModules("b"));
+		
+		assertTrue(index.isModule("a/b"));
+		assertFalse(index.isModule(""));
+		assertFalse(index.isModule("a/b/c/src"));
+	}
+	
+	@Test
+	public void modulesOutsideRootAreOwnedByRoot() {
+		final SourceCodeChanges tree = tree("a");
+		final SourceCodeChanges outside = new SourceCodeChanges("org.example", "outside", "1.0.0",
+			new File("/elsewhere/outside").getPath());
+		tree.getModules().add(outside);
+		final ModuleIndex index = new ModuleIndex(tree);
+		
+		assertEquals(3, index.size());
+		assertSame(tree, index.find("outside/pom.xml"));
+		assertSame(module(tree, "a"), index.find("a/pom.xml"));
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.ghokun.updated.scm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Fixtures of change detection tests: modules, their files and lookup of detected changes.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+final class Modules {
+	
+	private Modules() {
+	}
+	
+	/**
+	 * @return Project of group org.example and version 1.0.0, built into target of its directory
+	 */
+	static MavenProject project(File basedir, String artifactId) {
+		final MavenProject project = new MavenProject();
+		project.setGroupId("org.example");
+		project.setArtifactId(artifactId);
+		project.setVersion("1.0.0");
+		project.setFile(new File(basedir, "pom.xml"));
+		final Build build = new Build();
+		build.setDirectory(new File(basedir, "target").getPath());
+		project.setBuild(build);
+		return project;
+	}
+	
+	/**
+	 * Writes a UTF-8 file, creating its parent directories.
+	 */
+	static void write(File directory, String path, String content) throws IOException {
+		final File file = new File(directory, path);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * @return Changes of given module in tree
+	 * @throws AssertionError If tree has no such module
+	 */
+	static SourceCodeChanges module(SourceCodeChanges tree, String artifactId) {
+		for (final SourceCodeChanges module : tree) {
+			if (module.getArtifactId().equals(artifactId)) {
+				return module;
+			}
+		}
+		throw new AssertionError("No module " + artifactId);
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 ghokun
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.ghokun.updated.scm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Diffs of {@link SourceCodeChanges}, stored by {@link CompactDiffs}.
+ *
+ * @author ghokun
+ * @since 1.1.0
+ */
+public class SourceCodeChangesTest {
+	
+	private static SourceCodeChanges module() {
+		final SourceCodeChanges module = new SourceCodeChanges("org.example", "a", "1.0.0", "/work/a");
+		module.setDiffRoot("a/");
+		return module;
+	}
+	
+	@Test
+	public void detailsKeepPathsAndOrder() {
+		final SourceCodeChanges module = module();
+		module.addDiff(DiffType.ADD, "/dev/null", "a/src/B.java");
+		module.addDiff(DiffType.RENAME, "a/src/C.java", "a/src/main/C.java");
+		module.addDiff(DiffType.MODIFY, "b/pom.xml", "b/pom.xml");
+		
+		assertEquals(Arrays
+			.asList(new SourceCodeDiff(DiffType.ADD, "/dev/null", "a/src/B.java"),
+				new SourceCodeDiff(DiffType.RENAME, "a/src/C.java", "a/src/main/C.java"),
+				new SourceCodeDiff(DiffType.MODIFY, "b/pom.xml", "b/pom.xml")),
+			module.getDiffDetails());
+		assertEquals(3, module.diffCount());
+		assertEquals(1, module.diffCount(DiffType.RENAME));
+	}
+	
+	@Test
+	public void diffsSetAddsDistinctDiffs() {
+		final SourceCodeChanges module = module();
+		final Set<SourceCodeDiff> diffs = module.getDiffs();
+		assertTrue(diffs.add(new SourceCodeDiff(DiffType.MODIFY, "a/pom.xml", "a/pom.xml")));
+		assertFalse(diffs.add(new SourceCodeDiff(DiffType.MODIFY, "a/pom.xml", "a/pom.xml")));
+		
+		assertEquals(1, diffs.size());
+		assertEquals(1, module.diffCount());
+		assertTrue(module.getDiffs().contains(new SourceCodeDiff(DiffType.MODIFY, "a/pom.xml", "a/pom.xml")));
+	}
+	
+	@Test
+	public void addDiffSkipsListedDiffs() {
+		final SourceCodeChanges module = module();
+		for (int i = 0; i < 100; i++) {
+			assertTrue(module.addDiff(DiffType.ADD, "/dev/null", "a/src/F" + i + ".java"));
+		}
+		assertFalse(module.addDiff(DiffType.ADD, "/dev/null", "a/src/F42.java"));
+		assertTrue(module.addDiff(DiffType.DELETE, "a/src/F42.java", "/dev/null"));
+		assertFalse(module.addDiff(DiffType.DELETE, "a/src/F42.java", "/dev/null"));
+		
+		assertEquals(100, module.diffCount(DiffType.ADD));
+		assertEquals(1, module.diffCount(DiffType.DELETE));
+		assertEquals(101, module.getDiffDetails().size());
+	}
+	
+	@Test
+	public void countsStayExactBeyondMaxDetails() {
+		final SourceCodeChanges module = module();
+		module.setMaxDiffDetails(2);
+		for (int i = 0; i < 5; i++) {
+			module.addDiff(DiffType.ADD, "/dev/null", "a/src/F" + i + ".java");
+		}
+		
+		assertEquals(2, module.getDiffDetails().size());
+		assertEquals(5, module.diffCount(DiffType.ADD));
+		assertTrue(module.toString(), module.toString().contains("... and 3 more"));
+	}
+	
+	@Test
+	public void addDiffsCopiesDetailsAndCounts() {
+		final SourceCodeChanges previous = module();
+		previous.setMaxDiffDetails(1);
+		previous.addDiff(DiffType.ADD, "/dev/null", "a/src/B.java");
+		previous.addDiff(DiffType.DELETE, "a/src/C.java", "/dev/null");
+		previous.addDiff(DiffType.DELETE, "a/src/D.java", "/dev/null");
+		
+		final SourceCodeChanges module = module();
+		module.addDiffs(previous);
+		assertEquals(previous.getDiffDetails(), module.getDiffDetails());
+		assertEquals(1, module.diffCount(DiffType.ADD));
+		assertEquals(2, module.diffCount(DiffType.DELETE));
+	}
+}